@@ -0,0 +1,72 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.gerrit.server.AccessPath;
+import com.google.gerrit.server.AuditEvent;
+import com.google.gerrit.server.audit.HttpAuditEvent;
+import com.google.gerrit.server.audit.SshAuditEvent;
+
+/** Audit events shaped like the ones generated by a busy Gerrit server. */
+final class AuditEventFixtures {
+  enum EventType {
+    HTTP,
+    SSH
+  }
+
+  static AuditEvent newEvent(EventType type, int numParams) {
+    switch (type) {
+      case HTTP:
+        return new HttpAuditEvent(
+            "0KlkHHgMOLxbpVe0Y8s1EsZF9lRtMPCG",
+            newUser(AccessPath.REST_API),
+            "/a/changes/?q=status:open+project:platform/frameworks/base&o=CURRENT_REVISION",
+            System.currentTimeMillis(),
+            newParams(numParams),
+            "GET",
+            null,
+            200,
+            "[{\"id\":\"platform%2Fbase~master~I8473b95934b5732ac55d26311a706c9c2bde9940\"}]");
+      case SSH:
+      default:
+        return new SshAuditEvent(
+            "1c8a9b2f",
+            newUser(AccessPath.SSH_COMMAND),
+            "gerrit.query.--format.json.--current-patch-set.project:platform/frameworks/base",
+            System.currentTimeMillis(),
+            newParams(numParams),
+            "0");
+    }
+  }
+
+  private static AuditUser newUser(AccessPath accessPath) {
+    AuditUser user = new AuditUser();
+    user.setUserName("jenkins-ci");
+    user.setAccessPath(accessPath);
+    return user;
+  }
+
+  private static ImmutableListMultimap<String, String> newParams(int numParams) {
+    ImmutableListMultimap.Builder<String, String> params = ImmutableListMultimap.builder();
+    for (int i = 0; i < numParams; i++) {
+      params.put("o", "OPTION_" + i % 16);
+      params.put("q", "status:open project:platform/frameworks/base branch:refs/heads/main-" + i);
+    }
+    return params.build();
+  }
+
+  private AuditEventFixtures() {}
+}
@@ -0,0 +1,106 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.gerrit.server.AuditEvent;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditEventFixtures.EventType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the renderers, as Strings and as UTF-8 bytes.
+ *
+ * <p>Run with {@code -prof gc} to get the allocation rate per rendered event.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class AuditRendererBenchmark {
+  @Param({"CSV", "JSON", "JSON_STREAM"})
+  public AuditFormatTypes format;
+
+  @Param({"HTTP", "SSH"})
+  public EventType eventType;
+
+  @Param({"0", "64"})
+  public int numParams;
+
+  private AuditFormatRenderer renderer;
+  private AuditEvent event;
+
+  @State(Scope.Thread)
+  public static class ThreadBuffer {
+    final AuditRecordBuffer buffer = new AuditRecordBuffer();
+  }
+
+  @Setup
+  public void setUp() {
+    renderer = newRenderer(format);
+    event = AuditEventFixtures.newEvent(eventType, numParams);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public String renderString() {
+    return renderer.render(event);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public String renderStringConcurrently() {
+    return renderer.render(event);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public int renderBytes(ThreadBuffer threadBuffer) {
+    renderer.render(event, threadBuffer.buffer.reset());
+    return threadBuffer.buffer.length();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public int renderBytesConcurrently(ThreadBuffer threadBuffer) {
+    renderer.render(event, threadBuffer.buffer.reset());
+    return threadBuffer.buffer.length();
+  }
+
+  static AuditFormatRenderer newRenderer(AuditFormatTypes format) {
+    switch (format) {
+      case CSV:
+        return new AuditRendererToCsv();
+      case JSON:
+        return new AuditRendererToJson();
+      case JSON_STREAM:
+        return new AuditRendererToJsonStream();
+      default:
+        throw new IllegalArgumentException("Unsupported renderer '" + format + "'");
+    }
+  }
+}
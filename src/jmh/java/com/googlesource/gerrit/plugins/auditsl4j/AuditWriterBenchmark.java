@@ -0,0 +1,178 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.AuditEvent;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditEventFixtures.EventType;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditRingBuffer.OverflowPolicy;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditWriterToFile.DurabilityPolicy;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditWriterToMappedSegments.RollPeriod;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.AsyncAppender;
+import org.apache.log4j.FileAppender;
+import org.apache.log4j.PatternLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the writers, fed with an already rendered audit record.
+ *
+ * <p>Writers queueing the records (RING_BUFFER and STRIPES) write to a FILE writer and block when
+ * their queue is full, so that their throughput is bounded by the one of the file. Run with {@code
+ * -prof gc} to get the allocation rate per written record.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@State(Scope.Benchmark)
+public class AuditWriterBenchmark {
+  public enum WriterType {
+    LOGGER,
+    ASYNC_APPENDER,
+    FILE,
+    MMAP,
+    RING_BUFFER,
+    STRIPES
+  }
+
+  private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  @Param({"LOGGER", "ASYNC_APPENDER", "FILE", "MMAP", "RING_BUFFER", "STRIPES"})
+  public WriterType writerType;
+
+  @Param({"HTTP", "SSH"})
+  public EventType eventType;
+
+  private final List<LifecycleListener> listeners = new ArrayList<>();
+  private Path logsDir;
+  private AsyncAppender asyncAppender;
+  private AuditWriter writer;
+  private AuditEvent event;
+  private AuditRecordBuffer record;
+  private String recordString;
+
+  @Setup
+  public void setUp() throws IOException {
+    logsDir = Files.createTempDirectory("audit-sl4j-benchmark");
+    writer = newWriter(writerType);
+    listeners.forEach(LifecycleListener::start);
+
+    event = AuditEventFixtures.newEvent(eventType, 16);
+    record = new AuditRecordBuffer();
+    new AuditRendererToJsonStream().render(event, record);
+    recordString = record.toString();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    for (int i = listeners.size() - 1; i >= 0; i--) {
+      listeners.get(i).stop();
+    }
+    listeners.clear();
+    if (asyncAppender != null) {
+      asyncAppender.close();
+    }
+    MoreFiles.deleteRecursively(logsDir, RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void write() {
+    doWrite();
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void writeConcurrently() {
+    doWrite();
+  }
+
+  private void doWrite() {
+    if (writer instanceof AuditByteWriter) {
+      ((AuditByteWriter) writer).write(event, record);
+    } else {
+      writer.write(event, recordString);
+    }
+  }
+
+  private AuditWriter newWriter(WriterType type) throws IOException {
+    switch (type) {
+      case LOGGER:
+        return new AuditWriterToLogger();
+      case ASYNC_APPENDER:
+        asyncAppender = new AsyncAppender();
+        asyncAppender.addAppender(
+            new FileAppender(
+                new PatternLayout(), logsDir.resolve("audit_log").toString(), true));
+        return new AuditWriterToAsyncAppender(asyncAppender, 0, true, AuditMetrics.DISABLED);
+      case FILE:
+        return listening(
+            new AuditWriterToFile(
+                logsDir.resolve("audit_log"),
+                DurabilityPolicy.NEVER,
+                1000,
+                1000,
+                AuditMetrics.DISABLED));
+      case MMAP:
+        return listening(
+            new AuditWriterToMappedSegments(
+                logsDir,
+                "audit_log",
+                SEGMENT_SIZE,
+                RollPeriod.DAY,
+                DurabilityPolicy.NEVER,
+                1000,
+                1000,
+                System::currentTimeMillis,
+                AuditMetrics.DISABLED));
+      case RING_BUFFER:
+        return listening(
+            new AuditWriterToRingBuffer(
+                newWriter(WriterType.FILE), 64 * 1024, OverflowPolicy.BLOCK, 1000, 256));
+      case STRIPES:
+        return listening(
+            new AuditWriterToStripes(
+                newWriter(WriterType.FILE), 16, 8 * 1024, OverflowPolicy.BLOCK, 1000, 100));
+      default:
+        throw new IllegalArgumentException("Unsupported writer '" + type + "'");
+    }
+  }
+
+  private <T extends AuditWriter & LifecycleListener> T listening(T writer) {
+    listeners.add(writer);
+    return writer;
+  }
+}
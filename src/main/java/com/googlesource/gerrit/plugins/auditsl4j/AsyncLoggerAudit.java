@@ -0,0 +1,176 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.AuditEvent;
+import com.google.gerrit.server.audit.AuditListener;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Captures audit events into per-worker queues and lets background workers render and write them
+ * through {@link LoggerAudit}.
+ *
+ * <p>Events of the same session always go to the same worker, so that they are written in the
+ * order they were generated.
+ */
+@Singleton
+public class AsyncLoggerAudit implements AuditListener, LifecycleListener {
+  private static final Logger log = LoggerFactory.getLogger(AsyncLoggerAudit.class);
+
+  private static final long IDLE_WAIT_MS = 100;
+  private static final long STOP_TIMEOUT_MS = 10000;
+  private static final int BATCH_SIZE = 64;
+
+  private static class EventSlot {
+    AuditEvent event;
+  }
+
+  private final LoggerAudit loggerAudit;
+  private final List<AuditRingBuffer<EventSlot>> lanes;
+  private final AtomicLong reportedDropped = new AtomicLong();
+
+  private volatile boolean running;
+  private List<Thread> workers;
+
+  @Inject
+  public AsyncLoggerAudit(LoggerAudit loggerAudit, AuditConfig config, AuditMetrics metrics) {
+    this(
+        loggerAudit,
+        config.getRenderWorkers(),
+        config.getRenderQueueSize(),
+        config.getOverflowPolicy(),
+        config.getOverflowTimeoutMs());
+    metrics.registerQueue("render", this::queued, this::dropped);
+  }
+
+  AsyncLoggerAudit(
+      LoggerAudit loggerAudit,
+      int numWorkers,
+      int queueSize,
+      AuditRingBuffer.OverflowPolicy overflowPolicy,
+      long overflowTimeoutMs) {
+    this.loggerAudit = loggerAudit;
+    this.lanes = new ArrayList<>(numWorkers);
+    for (int i = 0; i < numWorkers; i++) {
+      lanes.add(
+          new AuditRingBuffer<>(
+              queueSize,
+              EventSlot::new,
+              overflowPolicy,
+              overflowTimeoutMs,
+              TimeUnit.MILLISECONDS));
+    }
+  }
+
+  @Override
+  public void onAuditableAction(AuditEvent auditEvent) {
+    laneOf(auditEvent).publish(auditEvent, (slot, event) -> slot.event = event);
+  }
+
+  @Override
+  public synchronized void start() {
+    if (workers != null) {
+      return;
+    }
+    running = true;
+    workers = new ArrayList<>(lanes.size());
+    for (int i = 0; i < lanes.size(); i++) {
+      AuditRingBuffer<EventSlot> lane = lanes.get(i);
+      Thread worker = new Thread(() -> renderLoop(lane), "audit-sl4j-renderer-" + i);
+      worker.setDaemon(true);
+      worker.start();
+      workers.add(worker);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (workers == null) {
+      return;
+    }
+    running = false;
+    lanes.forEach(AuditRingBuffer::wakeUpConsumer);
+    long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MS;
+    try {
+      for (Thread worker : workers) {
+        worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    int queued = queued();
+    if (queued > 0) {
+      log.warn("Audit renderers did not process {} queued events before stopping", queued);
+    }
+    reportDropped();
+    workers = null;
+  }
+
+  long dropped() {
+    return lanes.stream().mapToLong(AuditRingBuffer::dropped).sum();
+  }
+
+  int queued() {
+    return lanes.stream().mapToInt(AuditRingBuffer::size).sum();
+  }
+
+  private AuditRingBuffer<EventSlot> laneOf(AuditEvent auditEvent) {
+    int hash =
+        AuditEvent.UNKNOWN_SESSION_ID.equals(auditEvent.sessionId)
+            ? Long.hashCode(Thread.currentThread().getId())
+            : auditEvent.sessionId.hashCode();
+    return lanes.get(Math.floorMod(hash ^ (hash >>> 16), lanes.size()));
+  }
+
+  private void renderLoop(AuditRingBuffer<EventSlot> lane) {
+    while (running || !lane.isEmpty()) {
+      if (lane.drain(BATCH_SIZE, this::render) == 0) {
+        reportDropped();
+        if (running) {
+          lane.awaitPublished(IDLE_WAIT_MS, TimeUnit.MILLISECONDS);
+        }
+      }
+    }
+  }
+
+  private void render(EventSlot slot) {
+    AuditEvent event = slot.event;
+    slot.event = null;
+    try {
+      loggerAudit.onAuditableAction(event);
+    } catch (RuntimeException e) {
+      log.error("Unable to render audit event {}", event.uuid.uuid(), e);
+    }
+  }
+
+  private void reportDropped() {
+    long dropped = dropped();
+    long reported = reportedDropped.get();
+    if (dropped > reported && reportedDropped.compareAndSet(reported, dropped)) {
+      log.warn(
+          "Dropped {} audit events because the render queue was full ({} in total)",
+          dropped - reported,
+          dropped);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.gerrit.server.AuditEvent;
+
+/**
+ * {@link AuditWriter} accepting records already encoded as UTF-8 bytes.
+ *
+ * <p>The buffer passed to {@link #write(AuditRecordBuffer)} is reused by the caller as soon as the
+ * method returns, implementations must copy its content if they need to keep it.
+ */
+public interface AuditByteWriter extends AuditWriter {
+
+  void write(AuditRecordBuffer record);
+
+  /** Writes the {@code record} rendered from {@code auditEvent}. */
+  default void write(AuditEvent auditEvent, AuditRecordBuffer record) {
+    write(record);
+  }
+
+  @Override
+  default void write(String msg) {
+    write(new AuditRecordBuffer(msg.length()).append(msg));
+  }
+}
@@ -14,13 +14,36 @@
 
 package com.googlesource.gerrit.plugins.auditsl4j;
 
+import com.google.common.collect.ImmutableList;
 import com.google.gerrit.extensions.annotations.PluginName;
+import com.google.gerrit.server.config.ConfigUtil;
 import com.google.gerrit.server.config.PluginConfig;
 import com.google.gerrit.server.config.PluginConfigFactory;
 import com.google.inject.Inject;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class AuditConfig {
+  private static final int DEFAULT_BATCH_SIZE = 256;
+  private static final long DEFAULT_OVERFLOW_TIMEOUT_MS = 100;
+  private static final int DEFAULT_RENDER_QUEUE_SIZE = 1024;
+  private static final int DEFAULT_SINK_QUEUE_SIZE = 1024;
+  private static final long DEFAULT_SYSLOG_BUFFER_SIZE = 64 * 1024;
+  private static final int MIN_SYSLOG_BUFFER_SIZE = 4096;
+  private static final long DEFAULT_FSYNC_INTERVAL_MS = 1000;
+  private static final int DEFAULT_FSYNC_RECORDS = 1000;
+  private static final long DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+  private static final int MIN_SEGMENT_SIZE = 4096;
+  private static final long DEFAULT_COMPRESS_BLOCK_SIZE = 1024 * 1024;
+  private static final int MIN_COMPRESS_BLOCK_SIZE = 4096;
+  private static final int DEFAULT_STRIPE_SIZE = 1024;
+  private static final long DEFAULT_MERGE_WINDOW_MS = 1000;
+  private static final long DEFAULT_COMPRESS_INTERVAL_MS = TimeUnit.HOURS.toMillis(1);
+
   private final PluginConfig config;
 
   @Inject
@@ -35,4 +58,144 @@ public class AuditConfig {
   public Optional<String> getLogName() {
     return Optional.ofNullable(config.getString("logName"));
   }
+
+  public AuditWriterTypes getWriter() {
+    return config.getEnum(
+        "writer",
+        getLogName().isPresent() ? AuditWriterTypes.ASYNC_APPENDER : AuditWriterTypes.LOGGER);
+  }
+
+  /**
+   * Configured writers, in order: records are fanned out to all of them when more than one. FILE
+   * and ASYNC_APPENDER are rejected together, as both would write to {@code logName}.
+   */
+  public List<AuditWriterTypes> getWriters() {
+    String[] names = config.getStringList("writer");
+    if (names.length <= 1) {
+      return ImmutableList.of(getWriter());
+    }
+    Set<AuditWriterTypes> writers = new LinkedHashSet<>();
+    for (String name : names) {
+      writers.add(AuditWriterTypes.valueOf(name.trim().toUpperCase(Locale.US)));
+    }
+    if (writers.contains(AuditWriterTypes.FILE)
+        && writers.contains(AuditWriterTypes.ASYNC_APPENDER)) {
+      throw new IllegalArgumentException(
+          "Writers FILE and ASYNC_APPENDER cannot be configured together: both write to '"
+              + getLogName().orElse(AuditWriterToFile.DEFAULT_LOG_NAME)
+              + "'");
+    }
+    return ImmutableList.copyOf(writers);
+  }
+
+  public int getSinkQueueSize() {
+    return Math.max(1, config.getInt("sinkQueueSize", DEFAULT_SINK_QUEUE_SIZE));
+  }
+
+  public String getSyslogAddress() {
+    return config.getString("syslogAddress", AuditWriterToSyslog.DEFAULT_ADDRESS);
+  }
+
+  public AuditWriterToSyslog.Facility getSyslogFacility() {
+    return config.getEnum("syslogFacility", AuditWriterToSyslog.Facility.LOCAL0);
+  }
+
+  public String getSyslogAppName() {
+    return config.getString("syslogAppName", "gerrit");
+  }
+
+  public int getSyslogBufferSize() {
+    long size = config.getLong("syslogBufferSize", DEFAULT_SYSLOG_BUFFER_SIZE);
+    return (int) Math.max(MIN_SYSLOG_BUFFER_SIZE, Math.min(Integer.MAX_VALUE, size));
+  }
+
+  public int getAsyncBufferSize() {
+    return config.getInt("asyncBufferSize", 0);
+  }
+
+  public boolean isAsyncBlocking() {
+    return config.getBoolean("asyncBlocking", true);
+  }
+
+  public int getRingBufferSize() {
+    return config.getInt("ringBufferSize", 0);
+  }
+
+  public AuditRingBuffer.OverflowPolicy getOverflowPolicy() {
+    return config.getEnum("overflowPolicy", AuditRingBuffer.OverflowPolicy.DROP_NEWEST);
+  }
+
+  public long getOverflowTimeoutMs() {
+    return getTimeMs("overflowTimeout", DEFAULT_OVERFLOW_TIMEOUT_MS);
+  }
+
+  public int getBatchSize() {
+    return Math.max(1, config.getInt("batchSize", DEFAULT_BATCH_SIZE));
+  }
+
+  public int getRenderWorkers() {
+    return config.getInt("renderWorkers", 0);
+  }
+
+  public int getRenderQueueSize() {
+    return Math.max(1, config.getInt("renderQueueSize", DEFAULT_RENDER_QUEUE_SIZE));
+  }
+
+  public AuditWriterToFile.DurabilityPolicy getDurabilityPolicy() {
+    return config.getEnum("fsync", AuditWriterToFile.DurabilityPolicy.NEVER);
+  }
+
+  public long getFsyncIntervalMs() {
+    return Math.max(1, getTimeMs("fsyncInterval", DEFAULT_FSYNC_INTERVAL_MS));
+  }
+
+  public long getFsyncRecords() {
+    return Math.max(1, config.getInt("fsyncRecords", DEFAULT_FSYNC_RECORDS));
+  }
+
+  public int getSegmentSize() {
+    long size = config.getLong("segmentSize", DEFAULT_SEGMENT_SIZE);
+    return (int) Math.max(MIN_SEGMENT_SIZE, Math.min(Integer.MAX_VALUE, size));
+  }
+
+  public AuditWriterToMappedSegments.RollPeriod getSegmentRollPeriod() {
+    return config.getEnum("segmentRollPeriod", AuditWriterToMappedSegments.RollPeriod.DAY);
+  }
+
+  public boolean isCompressEnabled() {
+    return config.getBoolean("compress", false);
+  }
+
+  public int getCompressBlockSize() {
+    long size = config.getLong("compressBlockSize", DEFAULT_COMPRESS_BLOCK_SIZE);
+    return (int) Math.max(MIN_COMPRESS_BLOCK_SIZE, Math.min(Integer.MAX_VALUE, size));
+  }
+
+  public long getCompressMaxRate() {
+    return config.getLong("compressMaxRate", 0);
+  }
+
+  public long getCompressIntervalMs() {
+    return Math.max(1, getTimeMs("compressInterval", DEFAULT_COMPRESS_INTERVAL_MS));
+  }
+
+  public int getStripes() {
+    return config.getInt("stripes", 0);
+  }
+
+  public int getStripeSize() {
+    return Math.max(1, config.getInt("stripeSize", DEFAULT_STRIPE_SIZE));
+  }
+
+  public long getMergeWindowMs() {
+    return Math.max(0, getTimeMs("mergeWindow", DEFAULT_MERGE_WINDOW_MS));
+  }
+
+  private long getTimeMs(String name, long defaultMs) {
+    String value = config.getString(name);
+    if (value == null) {
+      return defaultMs;
+    }
+    return ConfigUtil.getTimeUnit(value, defaultMs, TimeUnit.MILLISECONDS);
+  }
 }
@@ -23,5 +23,23 @@ public interface AuditFormatRenderer {
 
   String render(AuditEvent auditEvent, TransformableAuditLogType type);
 
+  /**
+   * Renders the audit event as UTF-8 bytes appended to {@code out}.
+   *
+   * <p>The default implementation encodes the result of {@link #render(AuditEvent)}; renderers
+   * able to encode the record directly should override it.
+   */
+  default void render(AuditEvent auditEvent, AuditRecordBuffer out) {
+    out.append(render(auditEvent));
+  }
+
   Optional<String> headers();
+
+  /**
+   * Extracts from a record rendered by this renderer the key identifying its event: the second it
+   * happened at and what was done. Returns empty for headers and for renderers not supporting it.
+   */
+  default Optional<String> eventKey(String record) {
+    return Optional.empty();
+  }
 }
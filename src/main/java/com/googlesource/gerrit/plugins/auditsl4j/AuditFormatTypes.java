@@ -16,5 +16,6 @@ package com.googlesource.gerrit.plugins.auditsl4j;
 
 public enum AuditFormatTypes {
   CSV,
-  JSON;
+  JSON,
+  JSON_STREAM;
 }
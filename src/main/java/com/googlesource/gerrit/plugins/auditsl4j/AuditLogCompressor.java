@@ -0,0 +1,350 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.metrics.Counter0;
+import com.google.gerrit.metrics.Description;
+import com.google.gerrit.metrics.Description.Units;
+import com.google.gerrit.metrics.MetricMaker;
+import com.google.gerrit.metrics.Timer0;
+import com.google.gerrit.server.config.SitePaths;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.BufferedInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compresses the rolled audit log files in the background.
+ *
+ * <p>Files are compressed as a sequence of independent gzip members, each one ending at a record
+ * boundary, so that they can be split and decompressed in parallel while still being readable by
+ * any gzip tool. The compression runs on a low-priority thread, optionally throttled to a maximum
+ * number of bytes read per second.
+ */
+@Singleton
+public class AuditLogCompressor implements LifecycleListener {
+  private static final Logger log = LoggerFactory.getLogger(AuditLogCompressor.class);
+
+  static final String COMPRESSED_SUFFIX = ".gz";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path dir;
+  private final String baseName;
+  private final int blockSize;
+  private final long intervalMs;
+  private final RateLimiter rateLimiter;
+  private final Pattern rolledName;
+  private final Pattern segmentName;
+
+  private final Counter0 inputBytes;
+  private final Counter0 outputBytes;
+  private final Timer0 latency;
+  private final AtomicLong totalInputBytes = new AtomicLong();
+  private final AtomicLong totalOutputBytes = new AtomicLong();
+
+  private ScheduledExecutorService executor;
+
+  @Inject
+  public AuditLogCompressor(AuditConfig config, SitePaths sitePaths, MetricMaker metricMaker) {
+    this(
+        sitePaths.logs_dir,
+        config.getLogName().orElse(AuditWriterToFile.DEFAULT_LOG_NAME),
+        config.getCompressBlockSize(),
+        config.getCompressMaxRate(),
+        config.getCompressIntervalMs(),
+        metricMaker);
+  }
+
+  AuditLogCompressor(
+      Path dir,
+      String baseName,
+      int blockSize,
+      long maxBytesPerSecond,
+      long intervalMs,
+      MetricMaker metricMaker) {
+    this.dir = dir;
+    this.baseName = baseName;
+    this.blockSize = blockSize;
+    this.intervalMs = intervalMs;
+    this.rateLimiter = maxBytesPerSecond > 0 ? RateLimiter.create(maxBytesPerSecond) : null;
+    this.rolledName = Pattern.compile(Pattern.quote(baseName) + "\\.\\d{4}-\\d{2}-\\d{2}");
+    this.segmentName =
+        Pattern.compile(
+            Pattern.quote(baseName)
+                + "\\.\\d{4}-\\d{2}-\\d{2}(-\\d{2})?\\.\\d+"
+                + Pattern.quote(AuditWriterToMappedSegments.SEGMENT_SUFFIX));
+
+    inputBytes =
+        metricMaker.newCounter(
+            "compression/input_bytes",
+            new Description("Bytes of rolled audit logs compressed")
+                .setCumulative()
+                .setUnit(Units.BYTES));
+    outputBytes =
+        metricMaker.newCounter(
+            "compression/output_bytes",
+            new Description("Bytes of compressed audit logs produced")
+                .setCumulative()
+                .setUnit(Units.BYTES));
+    latency =
+        metricMaker.newTimer(
+            "compression/latency",
+            new Description("Time spent compressing one rolled audit log")
+                .setCumulative()
+                .setUnit(Units.MILLISECONDS));
+    metricMaker.newCallbackMetric(
+        "compression/ratio",
+        Double.class,
+        new Description("Ratio between compressed and original size of the audit logs")
+            .setGauge(),
+        this::compressionRatio);
+  }
+
+  @Override
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("audit-sl4j-compressor")
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .build());
+    executor.scheduleWithFixedDelay(
+        this::compressRolledFiles, 0, intervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+  }
+
+  double compressionRatio() {
+    long input = totalInputBytes.get();
+    return input == 0 ? 1.0 : (double) totalOutputBytes.get() / input;
+  }
+
+  void compressRolledFiles() {
+    try {
+      for (Path file : rolledFiles()) {
+        if (Thread.currentThread().isInterrupted()) {
+          return;
+        }
+        compress(file);
+      }
+    } catch (IOException e) {
+      log.error("Unable to list the rolled audit logs in {}", dir, e);
+    }
+  }
+
+  /**
+   * Lists the audit logs that are not written to anymore: the {@code <baseName>.yyyy-MM-dd} files
+   * rolled by the async appender and all the segments but the most recent one. Other files, such as
+   * the audit logs produced by the transform command, and files modified during the last interval
+   * are left alone.
+   */
+  private List<Path> rolledFiles() throws IOException {
+    List<Path> files = new ArrayList<>();
+    Path lastSegment = null;
+    long modifiedBefore = System.currentTimeMillis() - intervalMs;
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, baseName + ".*")) {
+      for (Path entry : entries) {
+        String name = entry.getFileName().toString();
+        boolean segment = segmentName.matcher(name).matches();
+        if (!(segment || rolledName.matcher(name).matches()) || !Files.isRegularFile(entry)) {
+          continue;
+        }
+        if (segment && (lastSegment == null || entry.compareTo(lastSegment) > 0)) {
+          lastSegment = entry;
+        }
+        if (Files.getLastModifiedTime(entry).toMillis() < modifiedBefore) {
+          files.add(entry);
+        }
+      }
+    }
+    files.remove(lastSegment);
+    Collections.sort(files);
+    return files;
+  }
+
+  private void compress(Path file) {
+    Path compressed = file.resolveSibling(file.getFileName() + COMPRESSED_SUFFIX);
+    Path tmp = file.resolveSibling(compressed.getFileName() + TMP_SUFFIX);
+    long start = System.nanoTime();
+    try {
+      if (!isComplete(compressed, Files.size(file))) {
+        long read = compressBlocks(file, tmp);
+        Files.move(
+            tmp, compressed, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+        long written = Files.size(compressed);
+        inputBytes.incrementBy(read);
+        outputBytes.incrementBy(written);
+        totalInputBytes.addAndGet(read);
+        totalOutputBytes.addAndGet(written);
+        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      }
+      Files.delete(file);
+    } catch (NoSuchFileException e) {
+      log.debug("Rolled audit log {} disappeared before being compressed", file);
+    } catch (IOException e) {
+      log.error("Unable to compress rolled audit log {}", file, e);
+    } finally {
+      try {
+        Files.deleteIfExists(tmp);
+      } catch (IOException e) {
+        log.warn("Unable to delete {}", tmp, e);
+      }
+    }
+  }
+
+  /**
+   * Whether a previous run left a compressed log that decompresses to the whole rolled log, which
+   * then only needs to be deleted. A crash before the data reached the disk could otherwise leave
+   * an empty or truncated file in its place.
+   */
+  private static boolean isComplete(Path compressed, long size) {
+    if (!Files.exists(compressed)) {
+      return false;
+    }
+    try (InputStream in =
+        new GZIPInputStream(new BufferedInputStream(Files.newInputStream(compressed)))) {
+      long decompressed = ByteStreams.exhaust(in);
+      if (decompressed == size) {
+        return true;
+      }
+      log.warn(
+          "Compressed audit log {} has {} bytes instead of {}, compressing it again",
+          compressed,
+          decompressed,
+          size);
+    } catch (IOException e) {
+      log.warn("Compressed audit log {} is corrupt, compressing it again", compressed, e);
+    }
+    return false;
+  }
+
+  /** Makes the rename of the compressed log durable before the rolled log is deleted. */
+  private void syncDirectory() {
+    try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // Not every platform allows to open or sync a directory
+      log.debug("Unable to sync directory {}", dir, e);
+    }
+  }
+
+  private long compressBlocks(Path file, Path target) throws IOException {
+    byte[] block = new byte[blockSize];
+    int pending = 0;
+    long total = 0;
+    try (InputStream in = Files.newInputStream(file);
+        FileChannel channel =
+            FileChannel.open(
+                target,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+      OutputStream out = Channels.newOutputStream(channel);
+      while (true) {
+        int n = in.read(block, pending, block.length - pending);
+        if (n < 0) {
+          break;
+        }
+        if (rateLimiter != null && n > 0) {
+          rateLimiter.acquire(n);
+        }
+        total += n;
+        pending += n;
+        if (pending == block.length) {
+          int end = lastRecordEnd(block, pending);
+          writeMember(out, block, end);
+          pending -= end;
+          System.arraycopy(block, end, block, 0, pending);
+        }
+      }
+      if (pending > 0) {
+        writeMember(out, block, pending);
+      }
+      channel.force(true);
+    }
+    return total;
+  }
+
+  private static int lastRecordEnd(byte[] block, int length) {
+    for (int i = length - 1; i >= 0; i--) {
+      if (block[i] == '\n') {
+        return i + 1;
+      }
+    }
+    return length;
+  }
+
+  private static void writeMember(OutputStream out, byte[] block, int length) throws IOException {
+    try (GZIPOutputStream member =
+        new GZIPOutputStream(new NonClosingOutputStream(out), BUFFER_SIZE)) {
+      member.write(block, 0, length);
+    }
+  }
+
+  private static class NonClosingOutputStream extends FilterOutputStream {
+    NonClosingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+  }
+}
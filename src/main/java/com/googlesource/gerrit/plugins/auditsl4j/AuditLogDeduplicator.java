@@ -0,0 +1,262 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Finds the transformed audit records of events that are in the audit log already, for instance
+ * because the plugin was running during part of the day being transformed.
+ *
+ * <p>Events are identified by the key that the {@link AuditFormatRenderer} extracts from their
+ * records. The keys of the existing records are spilled into partitions next to the audit log and
+ * summarized in a Bloom filter: transformed records whose key is not in the filter are new
+ * straight away, the others are checked exactly against the keys of their partition, one partition
+ * at a time. Memory is bounded by the Bloom filter, about 10 bits per existing record, and by the
+ * keys of the largest partition.
+ */
+class AuditLogDeduplicator implements Closeable {
+  static final long DEFAULT_PARTITION_BYTES = 64L * 1024 * 1024;
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+  private static final String SPILL_SUFFIX = ".dedupe";
+
+  private final Path spillDir;
+  private final int partitions;
+  private final long existingRecords;
+  private final BloomFilter<CharSequence> existingKeys;
+
+  /**
+   * Indexes the keys of the records in the first {@code length} bytes of {@code auditLog}, spilling
+   * one partition of keys for every {@code partitionBytes} of audit log.
+   */
+  static AuditLogDeduplicator load(
+      Path auditLog,
+      long length,
+      Function<String, Optional<String>> keyOf,
+      long partitionBytes)
+      throws IOException {
+    Path spillDir =
+        Files.createTempDirectory(auditLog.getParent(), auditLog.getFileName() + SPILL_SUFFIX);
+    try {
+      int partitions = (int) Math.max(1, Math.min(1024, length / partitionBytes + 1));
+      long records = spill(auditLog, length, keyOf, spillDir, partitions);
+      BloomFilter<CharSequence> existingKeys =
+          BloomFilter.create(
+              Funnels.unencodedCharsFunnel(), Math.max(1, records), FALSE_POSITIVE_PROBABILITY);
+      for (int p = 0; p < partitions; p++) {
+        try (DataInputStream in = openPartition(spillDir, p)) {
+          for (String key = readKey(in); key != null; key = readKey(in)) {
+            existingKeys.put(key);
+          }
+        }
+      }
+      return new AuditLogDeduplicator(spillDir, partitions, records, existingKeys);
+    } catch (IOException | RuntimeException e) {
+      MoreFiles.deleteRecursively(spillDir, RecursiveDeleteOption.ALLOW_INSECURE);
+      throw e;
+    }
+  }
+
+  private AuditLogDeduplicator(
+      Path spillDir,
+      int partitions,
+      long existingRecords,
+      BloomFilter<CharSequence> existingKeys) {
+    this.spillDir = spillDir;
+    this.partitions = partitions;
+    this.existingRecords = existingRecords;
+    this.existingKeys = existingKeys;
+  }
+
+  long existingRecords() {
+    return existingRecords;
+  }
+
+  @Override
+  public void close() throws IOException {
+    MoreFiles.deleteRecursively(spillDir, RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  /**
+   * Returns the index of the lines of {@code part} whose event is in the audit log, extracting the
+   * key of their event with {@code partKeyOf}. Each existing record matches at most one line.
+   */
+  BitSet findDuplicates(Path part, Function<String, Optional<String>> partKeyOf)
+      throws IOException {
+    BitSet duplicates = new BitSet();
+    if (existingRecords == 0) {
+      return duplicates;
+    }
+
+    DataOutputStream[] candidates = new DataOutputStream[partitions];
+    int[] candidateCounts = new int[partitions];
+    try (BufferedReader records = Files.newBufferedReader(part, UTF_8)) {
+      int index = 0;
+      for (String record = records.readLine(); record != null; record = records.readLine()) {
+        Optional<String> key = partKeyOf.apply(record);
+        if (key.isPresent() && existingKeys.mightContain(key.get())) {
+          int p = partitionOf(key.get());
+          if (candidates[p] == null) {
+            candidates[p] = newSpill(candidatesPath(p));
+          }
+          candidates[p].writeInt(index);
+          writeKey(candidates[p], key.get());
+          candidateCounts[p]++;
+        }
+        index++;
+      }
+    } finally {
+      for (DataOutputStream c : candidates) {
+        if (c != null) {
+          c.close();
+        }
+      }
+    }
+
+    for (int p = 0; p < partitions; p++) {
+      if (candidateCounts[p] > 0) {
+        markDuplicates(p, candidateCounts[p], duplicates);
+      }
+    }
+    return duplicates;
+  }
+
+  private void markDuplicates(int partition, int candidateCount, BitSet duplicates)
+      throws IOException {
+    Map<String, Integer> remaining = new HashMap<>();
+    try (DataInputStream in = openPartition(spillDir, partition)) {
+      for (String key = readKey(in); key != null; key = readKey(in)) {
+        remaining.merge(key, 1, Integer::sum);
+      }
+    }
+    Path candidatesPath = candidatesPath(partition);
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(candidatesPath)))) {
+      for (int i = 0; i < candidateCount; i++) {
+        int index = in.readInt();
+        String key = readKey(in);
+        Integer count = remaining.get(key);
+        if (count != null) {
+          duplicates.set(index);
+          if (count == 1) {
+            remaining.remove(key);
+          } else {
+            remaining.put(key, count - 1);
+          }
+        }
+      }
+    }
+    Files.delete(candidatesPath);
+  }
+
+  private static long spill(
+      Path auditLog,
+      long length,
+      Function<String, Optional<String>> keyOf,
+      Path spillDir,
+      int partitions)
+      throws IOException {
+    DataOutputStream[] spills = new DataOutputStream[partitions];
+    long records = 0;
+    try (InputStream in = Files.newInputStream(auditLog);
+        BufferedReader lines =
+            new BufferedReader(new InputStreamReader(ByteStreams.limit(in, length), UTF_8))) {
+      for (int p = 0; p < partitions; p++) {
+        spills[p] = newSpill(partitionPath(spillDir, p));
+      }
+      for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+        Optional<String> key = keyOf.apply(line);
+        if (key.isPresent()) {
+          writeKey(spills[partitionOf(key.get(), partitions)], key.get());
+          records++;
+        }
+      }
+    } finally {
+      for (DataOutputStream spill : spills) {
+        if (spill != null) {
+          spill.close();
+        }
+      }
+    }
+    return records;
+  }
+
+  private int partitionOf(String key) {
+    return partitionOf(key, partitions);
+  }
+
+  private static int partitionOf(String key, int partitions) {
+    return Math.floorMod(key.hashCode(), partitions);
+  }
+
+  private static Path partitionPath(Path spillDir, int partition) {
+    return spillDir.resolve("keys." + partition);
+  }
+
+  private Path candidatesPath(int partition) {
+    return spillDir.resolve("candidates." + partition);
+  }
+
+  private static DataOutputStream newSpill(Path path) throws IOException {
+    return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+  }
+
+  private static DataInputStream openPartition(Path spillDir, int partition) throws IOException {
+    return new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(partitionPath(spillDir, partition))));
+  }
+
+  private static void writeKey(DataOutputStream out, String key) throws IOException {
+    byte[] bytes = key.getBytes(UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /** Returns the next key of {@code in}, or null at the end of the spill. */
+  private static String readKey(DataInputStream in) throws IOException {
+    int length;
+    try {
+      length = in.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+}
@@ -0,0 +1,202 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the part files transformed from each type of log into a single stream of audit records
+ * ordered by the time of their event.
+ *
+ * <p>Each line of a part file is the time of its event in milliseconds, a space and the audit
+ * record. Logs are mostly, but not strictly, in time order: HTTP requests, for instance, are
+ * logged when they complete with the time they started at. The next line is always read from the
+ * part whose last line read is the oldest, and records are held back until every part has gone
+ * past their time by the reorder window. Records further out of order are written as soon as
+ * possible and counted as late. At most {@code maxBufferedRecords} records are held back, the
+ * oldest ones being written early beyond that, which bounds the memory used by the merge.
+ */
+class AuditLogMerger {
+  static final long DEFAULT_REORDER_WINDOW_MS = 60 * 1000;
+  static final int DEFAULT_MAX_BUFFERED_RECORDS = 100 * 1000;
+
+  private static class PendingRecord {
+    final long when;
+    final int part;
+    final long seq;
+    final String record;
+
+    PendingRecord(long when, int part, long seq, String record) {
+      this.when = when;
+      this.part = part;
+      this.seq = seq;
+      this.record = record;
+    }
+  }
+
+  private static final Comparator<PendingRecord> RECORD_ORDER =
+      Comparator.<PendingRecord>comparingLong(r -> r.when)
+          .thenComparingInt(r -> r.part)
+          .thenComparingLong(r -> r.seq);
+
+  private static class Part implements AutoCloseable {
+    final BufferedReader lines;
+    final BitSet skipped;
+    long seq;
+    long lastWhen = Long.MIN_VALUE;
+    boolean done;
+
+    Part(Path file, BitSet skipped) throws IOException {
+      this.lines = Files.newBufferedReader(file, UTF_8);
+      this.skipped = skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+      lines.close();
+    }
+  }
+
+  private final long reorderWindowMs;
+  private final int maxBufferedRecords;
+  private final PriorityQueue<PendingRecord> pending = new PriorityQueue<>(RECORD_ORDER);
+
+  private long lastWrittenWhen = Long.MIN_VALUE;
+  private long recordsWritten;
+  private long charsWritten;
+  private long late;
+
+  AuditLogMerger(long reorderWindowMs, int maxBufferedRecords) {
+    this.reorderWindowMs = reorderWindowMs;
+    this.maxBufferedRecords = maxBufferedRecords;
+  }
+
+  /** Returns the line of a part file for {@code record} of an event happened at {@code when}. */
+  static String partLine(long when, String record) {
+    return when + " " + record;
+  }
+
+  /** Returns the audit record of a line of a part file, or empty if it is not one. */
+  static Optional<String> recordOf(String partLine) {
+    int separator = partLine.indexOf(' ');
+    return separator > 0 ? Optional.of(partLine.substring(separator + 1)) : Optional.empty();
+  }
+
+  /**
+   * Writes to {@code output} the records of {@code parts} in time order, skipping the lines whose
+   * index is set in the matching element of {@code skipped}. On equal times, the records of the
+   * earlier parts are written first.
+   */
+  void merge(List<Path> parts, List<BitSet> skipped, Writer output) throws IOException {
+    List<Part> sources = new ArrayList<>(parts.size());
+    try {
+      for (int i = 0; i < parts.size(); i++) {
+        sources.add(new Part(parts.get(i), skipped.get(i)));
+      }
+      for (Part next = oldest(sources); next != null; next = oldest(sources)) {
+        read(sources.indexOf(next), next);
+        writeUpTo(watermark(sources), output);
+      }
+      writeUpTo(Long.MAX_VALUE, output);
+    } finally {
+      for (Part source : sources) {
+        source.close();
+      }
+    }
+  }
+
+  long recordsWritten() {
+    return recordsWritten;
+  }
+
+  long charsWritten() {
+    return charsWritten;
+  }
+
+  /** Number of records written after a record of a later event. */
+  long late() {
+    return late;
+  }
+
+  private void read(int index, Part part) throws IOException {
+    String line;
+    while ((line = part.lines.readLine()) != null) {
+      long seq = part.seq++;
+      if (!part.skipped.get((int) seq)) {
+        int separator = line.indexOf(' ');
+        long when;
+        try {
+          when = Long.parseLong(line.substring(0, Math.max(0, separator)));
+        } catch (NumberFormatException e) {
+          throw new IOException("Invalid audit record at line " + (seq + 1) + " of a part file");
+        }
+        pending.add(new PendingRecord(when, index, seq, line.substring(separator + 1)));
+        part.lastWhen = Math.max(part.lastWhen, when);
+        return;
+      }
+    }
+    part.done = true;
+  }
+
+  private static Part oldest(List<Part> parts) {
+    Part oldest = null;
+    for (Part part : parts) {
+      if (!part.done && (oldest == null || part.lastWhen < oldest.lastWhen)) {
+        oldest = part;
+      }
+    }
+    return oldest;
+  }
+
+  /**
+   * Time before which the records of all the parts have been read, less the reorder window. Records
+   * at the same time are held back until all have been read, to keep them in the order of parts.
+   */
+  private long watermark(List<Part> parts) {
+    Part oldest = oldest(parts);
+    if (oldest == null) {
+      return Long.MAX_VALUE;
+    }
+    return oldest.lastWhen == Long.MIN_VALUE ? Long.MIN_VALUE : oldest.lastWhen - reorderWindowMs;
+  }
+
+  private void writeUpTo(long watermark, Writer output) throws IOException {
+    while (!pending.isEmpty()
+        && (pending.peek().when < watermark || pending.size() > maxBufferedRecords)) {
+      PendingRecord next = pending.poll();
+      if (next.when < lastWrittenWhen) {
+        late++;
+      } else {
+        lastWrittenWhen = next.when;
+      }
+      output.write(next.record);
+      output.write('\n');
+      recordsWritten++;
+      charsWritten += next.record.length() + 1;
+    }
+  }
+}
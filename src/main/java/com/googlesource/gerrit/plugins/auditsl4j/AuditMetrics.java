@@ -0,0 +1,166 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.gerrit.metrics.Counter0;
+import com.google.gerrit.metrics.Counter1;
+import com.google.gerrit.metrics.Description;
+import com.google.gerrit.metrics.Description.Units;
+import com.google.gerrit.metrics.DisabledMetricMaker;
+import com.google.gerrit.metrics.Field;
+import com.google.gerrit.metrics.MetricMaker;
+import com.google.gerrit.metrics.Timer0;
+import com.google.gerrit.metrics.Timer1;
+import com.google.gerrit.server.AuditEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/** Metrics of the audit pipeline, from the rendering of the events to their queues and writers. */
+@Singleton
+public class AuditMetrics {
+  static final AuditMetrics DISABLED = new AuditMetrics(new DisabledMetricMaker());
+
+  private final MetricMaker metricMaker;
+  private final Counter1<String> events;
+  private final Timer1<String> renderLatency;
+  private final Timer1<String> handoffLatency;
+  private final Counter0 bytesWritten;
+
+  @Inject
+  public AuditMetrics(MetricMaker metricMaker) {
+    this.metricMaker = metricMaker;
+
+    Field<String> eventType =
+        Field.ofString("type", (metadataBuilder, fieldValue) -> {})
+            .description("Type of the audit event")
+            .build();
+    events =
+        metricMaker.newCounter(
+            "events",
+            new Description("Audit events received").setRate().setUnit("events"),
+            eventType);
+    renderLatency =
+        metricMaker.newTimer(
+            "render_latency",
+            new Description("Time spent rendering an audit event")
+                .setCumulative()
+                .setUnit(Units.MILLISECONDS),
+            eventType);
+    handoffLatency =
+        metricMaker.newTimer(
+            "handoff_latency",
+            new Description("Time spent handing a rendered audit event to the writer")
+                .setCumulative()
+                .setUnit(Units.MILLISECONDS),
+            eventType);
+    bytesWritten =
+        metricMaker.newCounter(
+            "bytes_written",
+            new Description("Bytes of rendered audit records handed to the writer")
+                .setRate()
+                .setUnit(Units.BYTES));
+  }
+
+  static String typeOf(AuditEvent auditEvent) {
+    return auditEvent.getClass().getSimpleName();
+  }
+
+  void recordRender(String type, long nanos) {
+    events.increment(type);
+    renderLatency.record(type, nanos, TimeUnit.NANOSECONDS);
+  }
+
+  void recordHandoff(String type, long nanos, long bytes) {
+    handoffLatency.record(type, nanos, TimeUnit.NANOSECONDS);
+    bytesWritten.incrementBy(bytes);
+  }
+
+  /** Exposes the depth and the dropped records of the audit queue {@code name}. */
+  void registerQueue(String name, Supplier<Integer> depth, Supplier<Long> dropped) {
+    metricMaker.newCallbackMetric(
+        "queue/" + name + "/depth",
+        Integer.class,
+        new Description("Audit records waiting in the " + name + " queue").setGauge(),
+        depth);
+    metricMaker.newCallbackMetric(
+        "queue/" + name + "/dropped",
+        Long.class,
+        new Description("Audit records dropped because the " + name + " queue was full")
+            .setCumulative(),
+        dropped);
+  }
+
+  /**
+   * Exposes the depth, the dropped records and the lag, in milliseconds, of the audit queue {@code
+   * name}.
+   */
+  void registerQueue(
+      String name, Supplier<Integer> depth, Supplier<Long> dropped, Supplier<Long> lagMs) {
+    registerQueue(name, depth, dropped);
+    metricMaker.newCallbackMetric(
+        "queue/" + name + "/lag",
+        Long.class,
+        new Description("Time spent in the " + name + " queue by the audit record being written")
+            .setGauge()
+            .setUnit(Units.MILLISECONDS),
+        lagMs);
+  }
+
+  void registerBacklog(String name, Supplier<Long> backlog) {
+    metricMaker.newCallbackMetric(
+        name + "/backlog",
+        Long.class,
+        new Description("Audit records not yet written by the " + name).setGauge(),
+        backlog);
+  }
+
+  void registerDropped(String name, Supplier<Long> dropped) {
+    metricMaker.newCallbackMetric(
+        name + "/dropped",
+        Long.class,
+        new Description("Audit records dropped by the " + name).setCumulative(),
+        dropped);
+  }
+
+  void registerBacklogBytes(String name, Supplier<Long> backlogBytes) {
+    metricMaker.newCallbackMetric(
+        name + "/backlog_bytes",
+        Long.class,
+        new Description("Bytes of audit records not yet sent by the " + name)
+            .setGauge()
+            .setUnit(Units.BYTES),
+        backlogBytes);
+  }
+
+  /** Times the writes of the {@code name} writer to its destination. */
+  Timer0 newWriteTimer(String name) {
+    return metricMaker.newTimer(
+        name + "/write_latency",
+        new Description("Time spent by the " + name + " writing audit records to its destination")
+            .setCumulative()
+            .setUnit(Units.MILLISECONDS));
+  }
+
+  /** Times the flushes of the {@code name} writer to disk. */
+  Timer0 newSyncTimer(String name) {
+    return metricMaker.newTimer(
+        name + "/sync_latency",
+        new Description("Time spent by the " + name + " flushing audit records to disk")
+            .setCumulative()
+            .setUnit(Units.MILLISECONDS));
+  }
+}
@@ -23,8 +23,7 @@ public class AuditRecord {
   public AuditRecord(AuditEvent event) {
     super();
 
-    String eventClass = event.getClass().getName();
-    this.type = eventClass.substring(eventClass.lastIndexOf('.') + 1);
+    this.type = typeOf(event);
     this.event = event;
   }
 
@@ -34,4 +33,9 @@ public class AuditRecord {
     this.type = type.name();
     this.event = event;
   }
+
+  static String typeOf(AuditEvent event) {
+    String eventClass = event.getClass().getName();
+    return eventClass.substring(eventClass.lastIndexOf('.') + 1);
+  }
 }
@@ -0,0 +1,188 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer holding one rendered audit record, encoded in UTF-8 while it is appended.
+ *
+ * <p>Buffers are meant to be reused: renderers append characters into it and writers copy its
+ * content to their own storage before returning.
+ */
+public final class AuditRecordBuffer implements Appendable {
+  static final int DEFAULT_CAPACITY = 1024;
+
+  private byte[] bytes;
+  private int length;
+  private char pendingHighSurrogate;
+
+  public AuditRecordBuffer() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public AuditRecordBuffer(int capacity) {
+    bytes = new byte[capacity];
+  }
+
+  public AuditRecordBuffer reset() {
+    length = 0;
+    pendingHighSurrogate = 0;
+    return this;
+  }
+
+  public int length() {
+    completePendingSurrogate();
+    return length;
+  }
+
+  public int capacity() {
+    return bytes.length;
+  }
+
+  /** Empties the buffer and releases its storage beyond {@code capacity} bytes. */
+  public AuditRecordBuffer trimTo(int capacity) {
+    reset();
+    if (bytes.length > capacity) {
+      bytes = new byte[capacity];
+    }
+    return this;
+  }
+
+  @Override
+  public AuditRecordBuffer append(CharSequence csq) {
+    return append(csq, 0, csq.length());
+  }
+
+  @Override
+  public AuditRecordBuffer append(CharSequence csq, int start, int end) {
+    ensureCapacity(length + (end - start));
+    for (int i = start; i < end; i++) {
+      char c = csq.charAt(i);
+      if (c < 0x80 && pendingHighSurrogate == 0) {
+        if (length == bytes.length) {
+          ensureCapacity(length + (end - i));
+        }
+        bytes[length++] = (byte) c;
+      } else {
+        append(c);
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public AuditRecordBuffer append(char c) {
+    if (pendingHighSurrogate != 0) {
+      char high = pendingHighSurrogate;
+      pendingHighSurrogate = 0;
+      if (Character.isLowSurrogate(c)) {
+        appendCodePoint(Character.toCodePoint(high, c));
+        return this;
+      }
+      appendReplacement();
+    }
+
+    if (c < 0x80) {
+      ensureCapacity(length + 1);
+      bytes[length++] = (byte) c;
+    } else if (c < 0x800) {
+      ensureCapacity(length + 2);
+      bytes[length++] = (byte) (0xc0 | (c >> 6));
+      bytes[length++] = (byte) (0x80 | (c & 0x3f));
+    } else if (Character.isHighSurrogate(c)) {
+      pendingHighSurrogate = c;
+    } else if (Character.isLowSurrogate(c)) {
+      appendReplacement();
+    } else {
+      ensureCapacity(length + 3);
+      bytes[length++] = (byte) (0xe0 | (c >> 12));
+      bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+      bytes[length++] = (byte) (0x80 | (c & 0x3f));
+    }
+    return this;
+  }
+
+  /** Appends raw bytes, which must already be UTF-8 encoded. */
+  public AuditRecordBuffer append(byte[] src, int offset, int count) {
+    completePendingSurrogate();
+    ensureCapacity(length + count);
+    System.arraycopy(src, offset, bytes, length, count);
+    length += count;
+    return this;
+  }
+
+  public AuditRecordBuffer append(AuditRecordBuffer other) {
+    return append(other.bytes, 0, other.length());
+  }
+
+  /** Wraps the content of this buffer, without copying it. */
+  public ByteBuffer asByteBuffer() {
+    completePendingSurrogate();
+    return ByteBuffer.wrap(bytes, 0, length);
+  }
+
+  public void copyTo(ByteBuffer target) {
+    completePendingSurrogate();
+    target.put(bytes, 0, length);
+  }
+
+  public void writeTo(OutputStream out) throws IOException {
+    completePendingSurrogate();
+    out.write(bytes, 0, length);
+  }
+
+  public byte[] toByteArray() {
+    completePendingSurrogate();
+    return Arrays.copyOf(bytes, length);
+  }
+
+  @Override
+  public String toString() {
+    completePendingSurrogate();
+    return new String(bytes, 0, length, UTF_8);
+  }
+
+  private void completePendingSurrogate() {
+    if (pendingHighSurrogate != 0) {
+      pendingHighSurrogate = 0;
+      appendReplacement();
+    }
+  }
+
+  private void appendCodePoint(int codePoint) {
+    ensureCapacity(length + 4);
+    bytes[length++] = (byte) (0xf0 | (codePoint >> 18));
+    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+    bytes[length++] = (byte) (0x80 | (codePoint & 0x3f));
+  }
+
+  private void appendReplacement() {
+    ensureCapacity(length + 1);
+    bytes[length++] = '?';
+  }
+
+  private void ensureCapacity(int minCapacity) {
+    if (minCapacity > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(minCapacity, bytes.length * 2));
+    }
+  }
+}
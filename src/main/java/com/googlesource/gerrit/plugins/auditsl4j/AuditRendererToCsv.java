@@ -30,7 +30,15 @@ import java.util.TreeSet;
 
 public class AuditRendererToCsv implements AuditFormatRenderer {
 
-  private static final SimpleDateFormat dateFmt = new SimpleDateFormat("yyyy/MM/dd hh:mm:ss.SSSS");
+  private static final String SEPARATOR = " | ";
+  private static final int TIMESTAMP_LENGTH = 24;
+  private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+  private static final ThreadLocal<TimestampPrefix> timestampPrefix =
+      ThreadLocal.withInitial(TimestampPrefix::new);
+
+  private final ThreadLocal<StringBuilder> buffers =
+      ThreadLocal.withInitial(() -> new StringBuilder(512));
 
   private static final Map<Class<?>, CsvFieldFormatter<?>> FIELD_CSV_FORMATTERS =
       ImmutableMap.of(
@@ -72,18 +80,43 @@ public class AuditRendererToCsv implements AuditFormatRenderer {
 
   @Override
   public String render(AuditEvent auditEvent) {
-    return String.format(
-        "%1$s | %2$s | %3$s | %4$s | %5$s | %6$s | %7$s | %8$s | %9$s | %10$s",
-        auditEvent.uuid.uuid(),
-        getFormattedTS(auditEvent.when),
-        auditEvent.sessionId,
-        getFieldAsCsv(auditEvent.who),
-        getFieldAsCsv(auditEvent),
-        auditEvent.what,
-        getFormattedAuditList(auditEvent.params),
-        getFieldAsCsv(auditEvent.result),
-        getFormattedTS(auditEvent.timeAtStart),
-        auditEvent.elapsed);
+    StringBuilder out = buffers.get();
+    out.setLength(0);
+    try {
+      appendRecord(out, auditEvent);
+      return out.toString();
+    } finally {
+      if (out.capacity() > MAX_RETAINED_BUFFER) {
+        buffers.remove();
+      }
+    }
+  }
+
+  @Override
+  public void render(AuditEvent auditEvent, AuditRecordBuffer out) {
+    StringBuilder record = buffers.get();
+    record.setLength(0);
+    try {
+      appendRecord(record, auditEvent);
+      out.append(record);
+    } finally {
+      if (record.capacity() > MAX_RETAINED_BUFFER) {
+        buffers.remove();
+      }
+    }
+  }
+
+  void appendRecord(StringBuilder out, AuditEvent auditEvent) {
+    out.append(auditEvent.uuid.uuid()).append(SEPARATOR);
+    appendFormattedTS(out, auditEvent.when);
+    out.append(SEPARATOR).append(auditEvent.sessionId).append(SEPARATOR);
+    out.append(getFieldAsCsv(auditEvent.who)).append(SEPARATOR);
+    out.append(getFieldAsCsv(auditEvent)).append(SEPARATOR);
+    out.append(auditEvent.what).append(SEPARATOR);
+    appendFormattedAuditList(out, auditEvent.params);
+    out.append(SEPARATOR).append(getFieldAsCsv(auditEvent.result)).append(SEPARATOR);
+    appendFormattedTS(out, auditEvent.timeAtStart);
+    out.append(SEPARATOR).append(auditEvent.elapsed);
   }
 
   @Override
@@ -97,32 +130,43 @@ public class AuditRendererToCsv implements AuditFormatRenderer {
         "EventId | EventTS | SessionId | User | Protocol data | Action | Parameters | Result | StartTS | Elapsed");
   }
 
-  private Object getFormattedAuditList(Multimap<String, ?> params) {
+  /**
+   * Returns empty: the timestamps of CSV records use a 12-hour clock without AM/PM, so events
+   * twelve hours apart cannot be told apart. Skipping existing records requires a JSON format.
+   */
+  @Override
+  public Optional<String> eventKey(String record) {
+    return Optional.empty();
+  }
+
+  private void appendFormattedAuditList(StringBuilder out, Multimap<String, ?> params) {
     if (params == null || params.size() == 0) {
-      return "[]";
+      out.append("[]");
+      return;
     }
 
-    StringBuilder formattedOut = new StringBuilder("[");
+    out.append('[');
 
     Set<String> paramNames = new TreeSet<>(params.keySet());
 
     int numParams = 0;
     for (String paramName : paramNames) {
       if (numParams++ > 0) {
-        formattedOut.append(",");
+        out.append(",");
       }
-      formattedOut.append(paramName);
-      formattedOut.append("=");
-      formattedOut.append(getFormattedAudit(params.get(paramName)));
+      out.append(paramName);
+      out.append("=");
+      appendFormattedAudit(out, params.get(paramName));
     }
 
-    formattedOut.append(']');
-
-    return formattedOut.toString();
+    out.append(']');
   }
 
-  private Object getFormattedAudit(Collection<? extends Object> values) {
-    StringBuilder out = new StringBuilder();
+  private void appendFormattedAudit(StringBuilder out, Collection<? extends Object> values) {
+    boolean multipleValues = values.size() > 1;
+    if (multipleValues) {
+      out.append('[');
+    }
     int numValues = 0;
     for (Object object : values) {
       if (numValues > 0) {
@@ -131,11 +175,9 @@ public class AuditRendererToCsv implements AuditFormatRenderer {
       out.append(getFieldAsCsv(object));
       numValues++;
     }
-
-    if (numValues > 1) {
-      return "[" + out.toString() + "]";
+    if (multipleValues) {
+      out.append(']');
     }
-    return out.toString();
   }
 
   public static <T> String getFieldAsCsv(T result) {
@@ -148,7 +190,41 @@ public class AuditRendererToCsv implements AuditFormatRenderer {
     return fmt.formatToCsv(result);
   }
 
-  public static synchronized String getFormattedTS(long when) {
-    return dateFmt.format(new Date(when));
+  public static String getFormattedTS(long when) {
+    StringBuilder out = new StringBuilder(TIMESTAMP_LENGTH);
+    appendFormattedTS(out, when);
+    return out.toString();
+  }
+
+  /**
+   * Appends {@code when} formatted as {@code yyyy/MM/dd hh:mm:ss.SSSS}.
+   *
+   * <p>Every thread keeps the formatted prefix of the last second it rendered, so that the date
+   * formatter is only invoked once per second and per thread, and only the milliseconds have to be
+   * appended for the other events.
+   */
+  static void appendFormattedTS(StringBuilder out, long when) {
+    TimestampPrefix prefix = timestampPrefix.get();
+    long second = Math.floorDiv(when, 1000L);
+    if (second != prefix.second || prefix.formatted == null) {
+      prefix.second = second;
+      prefix.formatted = prefix.format.format(new Date(second * 1000L));
+    }
+
+    int millis = (int) Math.floorMod(when, 1000L);
+    out.append(prefix.formatted).append('0');
+    if (millis < 100) {
+      out.append('0');
+    }
+    if (millis < 10) {
+      out.append('0');
+    }
+    out.append(millis);
+  }
+
+  private static class TimestampPrefix {
+    final SimpleDateFormat format = new SimpleDateFormat("yyyy/MM/dd hh:mm:ss.");
+    long second;
+    String formatted;
   }
 }
@@ -27,6 +27,7 @@ import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 import java.lang.reflect.Type;
@@ -35,7 +36,7 @@ import java.util.HashSet;
 import java.util.Optional;
 
 public class AuditRendererToJson implements AuditFormatRenderer {
-  private final ExclusionStrategy INCLUDE_ONLY_ALLOWED =
+  final ExclusionStrategy INCLUDE_ONLY_ALLOWED =
       new ExclusionStrategy() {
         private final HashSet<Class<?>> ALLOWLIST_CLASSES =
             new HashSet<>(
@@ -92,7 +93,7 @@ public class AuditRendererToJson implements AuditFormatRenderer {
         }
       };
 
-  private final Gson gson =
+  final Gson gson =
       OutputFormat.JSON_COMPACT
           .newGsonBuilder()
           .setExclusionStrategies(INCLUDE_ONLY_ALLOWED)
@@ -109,8 +110,31 @@ public class AuditRendererToJson implements AuditFormatRenderer {
     return gson.toJson(new AuditRecord(auditEvent, type));
   }
 
+  @Override
+  public void render(AuditEvent auditEvent, AuditRecordBuffer out) {
+    gson.toJson(new AuditRecord(auditEvent), out);
+  }
+
   @Override
   public Optional<String> headers() {
     return Optional.empty();
   }
+
+  @Override
+  public Optional<String> eventKey(String record) {
+    return eventKeyOf(record);
+  }
+
+  static Optional<String> eventKeyOf(String record) {
+    try {
+      JsonObject event = JsonParser.parseString(record).getAsJsonObject().getAsJsonObject("event");
+      if (event == null || !event.has("when") || !event.has("what")) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          event.get("when").getAsLong() / 1000 + " " + event.get("what").getAsString());
+    } catch (RuntimeException e) {
+      return Optional.empty();
+    }
+  }
 }
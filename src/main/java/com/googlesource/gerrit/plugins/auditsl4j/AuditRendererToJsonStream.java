@@ -0,0 +1,501 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.common.collect.ListMultimap;
+import com.google.gerrit.server.AuditEvent;
+import com.google.gerrit.server.CurrentUser;
+import com.google.gson.FieldAttributes;
+import com.google.gson.FieldNamingStrategy;
+import com.google.gson.annotations.SerializedName;
+import com.google.inject.Singleton;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Renders audit events to the same JSON produced by {@link AuditRendererToJson}, without going
+ * through Gson reflection for every event.
+ *
+ * <p>The fields of each event class, their JSON names and their order are resolved once, applying
+ * the same exclusion rules used by the Gson renderer. Events are then appended into a per-thread
+ * buffer. The parameters and the common result types are encoded directly, reproducing what Gson
+ * produces for them: Gson renders the Guava multimaps as {@code {}}, as they keep all their state
+ * in transient fields, and omits the values of the classes excluded by the Gson renderer. Only
+ * values whose shape is not known in advance are delegated to the Gson renderer, so that the output
+ * stays byte-identical to {@code JSON_COMPACT}.
+ */
+@Singleton
+public class AuditRendererToJsonStream implements AuditFormatRenderer {
+  private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+  private static final String[] REPLACEMENT_CHARS;
+  private static final String[] HTML_SAFE_REPLACEMENT_CHARS;
+
+  static {
+    REPLACEMENT_CHARS = new String[128];
+    for (int i = 0; i <= 0x1f; i++) {
+      REPLACEMENT_CHARS[i] = String.format("\\u%04x", i);
+    }
+    REPLACEMENT_CHARS['"'] = "\\\"";
+    REPLACEMENT_CHARS['\\'] = "\\\\";
+    REPLACEMENT_CHARS['\t'] = "\\t";
+    REPLACEMENT_CHARS['\b'] = "\\b";
+    REPLACEMENT_CHARS['\n'] = "\\n";
+    REPLACEMENT_CHARS['\r'] = "\\r";
+    REPLACEMENT_CHARS['\f'] = "\\f";
+    HTML_SAFE_REPLACEMENT_CHARS = REPLACEMENT_CHARS.clone();
+    HTML_SAFE_REPLACEMENT_CHARS['<'] = "\\u003c";
+    HTML_SAFE_REPLACEMENT_CHARS['>'] = "\\u003e";
+    HTML_SAFE_REPLACEMENT_CHARS['&'] = "\\u0026";
+    HTML_SAFE_REPLACEMENT_CHARS['='] = "\\u003d";
+    HTML_SAFE_REPLACEMENT_CHARS['\''] = "\\u0027";
+  }
+
+  private final AuditRendererToJson gsonRenderer = new AuditRendererToJson();
+  private final String[] replacementChars =
+      gsonRenderer.gson.htmlSafe() ? HTML_SAFE_REPLACEMENT_CHARS : REPLACEMENT_CHARS;
+
+  private final ClassValue<List<FieldEncoder>> eventFields =
+      new ClassValue<List<FieldEncoder>>() {
+        @Override
+        protected List<FieldEncoder> computeValue(Class<?> eventClass) {
+          return resolveFields(eventClass);
+        }
+      };
+
+  private final ClassValue<Boolean> stateless =
+      new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> valueClass) {
+          return serializableFields(valueClass).isEmpty();
+        }
+      };
+
+  private final ClassValue<Boolean> uuidOnly =
+      new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> uuidClass) {
+          List<Field> fields = serializableFields(uuidClass);
+          return fields.size() == 1
+              && fields.get(0).getType() == String.class
+              && jsonName(fields.get(0)).equals("uuid");
+        }
+      };
+
+  private final ClassValue<Boolean> excluded =
+      new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> valueClass) {
+          return gsonRenderer.INCLUDE_ONLY_ALLOWED.shouldSkipClass(valueClass)
+              || isAnonymousOrNonStaticLocal(valueClass);
+        }
+      };
+
+  private final ConcurrentMap<Class<?>, String> statelessJson = new ConcurrentHashMap<>();
+
+  private final ThreadLocal<StringBuilder> buffers =
+      ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+  @Override
+  public String render(AuditEvent auditEvent) {
+    String json = tryRender(auditEvent, AuditRecord.typeOf(auditEvent));
+    return json != null ? json : gsonRenderer.render(auditEvent);
+  }
+
+  @Override
+  public String render(AuditEvent auditEvent, TransformableAuditLogType type) {
+    String json = tryRender(auditEvent, type.name());
+    return json != null ? json : gsonRenderer.render(auditEvent, type);
+  }
+
+  @Override
+  public void render(AuditEvent auditEvent, AuditRecordBuffer out) {
+    StringBuilder record = buffers.get();
+    record.setLength(0);
+    try {
+      if (appendRecord(record, auditEvent, AuditRecord.typeOf(auditEvent))) {
+        out.append(record);
+      } else {
+        gsonRenderer.render(auditEvent, out);
+      }
+    } finally {
+      if (record.capacity() > MAX_RETAINED_BUFFER) {
+        buffers.remove();
+      }
+    }
+  }
+
+  @Override
+  public Optional<String> headers() {
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<String> eventKey(String record) {
+    return AuditRendererToJson.eventKeyOf(record);
+  }
+
+  private String tryRender(AuditEvent auditEvent, String type) {
+    StringBuilder out = buffers.get();
+    out.setLength(0);
+    try {
+      return appendRecord(out, auditEvent, type) ? out.toString() : null;
+    } finally {
+      if (out.capacity() > MAX_RETAINED_BUFFER) {
+        buffers.remove();
+      }
+    }
+  }
+
+  boolean appendRecord(StringBuilder out, AuditEvent auditEvent, String type) {
+    out.append("{\"type\":");
+    appendString(out, type);
+    out.append(",\"event\":{");
+    boolean first = true;
+    for (FieldEncoder field : eventFields.get(auditEvent.getClass())) {
+      int mark = out.length();
+      if (!first) {
+        out.append(',');
+      }
+      out.append(field.name);
+      try {
+        if (field.append(out, auditEvent)) {
+          first = false;
+        } else {
+          out.setLength(mark);
+        }
+      } catch (UnsupportedShapeException e) {
+        return false;
+      }
+    }
+    out.append("}}");
+    return true;
+  }
+
+  private List<FieldEncoder> resolveFields(Class<?> eventClass) {
+    List<FieldEncoder> encoders = new ArrayList<>();
+    for (Field field : serializableFields(eventClass)) {
+      Class<?> fieldType = field.getType();
+      if (gsonRenderer.INCLUDE_ONLY_ALLOWED.shouldSkipField(new FieldAttributes(field))
+          || gsonRenderer.INCLUDE_ONLY_ALLOWED.shouldSkipClass(fieldType)
+          || isAnonymousOrNonStaticLocal(fieldType)) {
+        continue;
+      }
+
+      field.setAccessible(true);
+      String name = quotedName(jsonName(field));
+      if (fieldType == String.class) {
+        encoders.add(new StringEncoder(name, field));
+      } else if (fieldType == Long.TYPE) {
+        encoders.add(new LongEncoder(name, field));
+      } else if (fieldType == Integer.TYPE) {
+        encoders.add(new IntEncoder(name, field));
+      } else if (fieldType == Object.class
+          || fieldType == Long.class
+          || fieldType == Integer.class) {
+        encoders.add(new ObjectEncoder(name, field));
+      } else if (fieldType == ListMultimap.class) {
+        encoders.add(new MultimapEncoder(name, field));
+      } else if (fieldType == CurrentUser.class) {
+        encoders.add(new CurrentUserEncoder(name, field));
+      } else if (fieldType == AuditEvent.UUID.class) {
+        encoders.add(new UuidEncoder(name, field));
+      } else {
+        encoders.add(new ReflectiveEncoder(name, field));
+      }
+    }
+    return encoders;
+  }
+
+  private static List<Field> serializableFields(Class<?> clazz) {
+    List<Field> fields = new ArrayList<>();
+    for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+      for (Field field : c.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (!Modifier.isStatic(modifiers)
+            && !Modifier.isTransient(modifiers)
+            && !field.isSynthetic()) {
+          fields.add(field);
+        }
+      }
+    }
+    return fields;
+  }
+
+  private static boolean isAnonymousOrNonStaticLocal(Class<?> clazz) {
+    return !Enum.class.isAssignableFrom(clazz)
+        && !Modifier.isStatic(clazz.getModifiers())
+        && (clazz.isAnonymousClass() || clazz.isLocalClass());
+  }
+
+  private String jsonName(Field field) {
+    SerializedName serializedName = field.getAnnotation(SerializedName.class);
+    if (serializedName != null) {
+      return serializedName.value();
+    }
+    FieldNamingStrategy naming = gsonRenderer.gson.fieldNamingStrategy();
+    return naming.translateName(field);
+  }
+
+  private String quotedName(String name) {
+    StringBuilder quoted = new StringBuilder();
+    appendString(quoted, name);
+    return quoted.append(':').toString();
+  }
+
+  void appendString(StringBuilder out, String value) {
+    out.append('"');
+    int last = 0;
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      String replacement;
+      if (c < 128) {
+        replacement = replacementChars[c];
+        if (replacement == null) {
+          continue;
+        }
+      } else if (c == '\u2028') {
+        replacement = "\\u2028";
+      } else if (c == '\u2029') {
+        replacement = "\\u2029";
+      } else {
+        continue;
+      }
+      if (last < i) {
+        out.append(value, last, i);
+      }
+      out.append(replacement);
+      last = i + 1;
+    }
+    if (last < length) {
+      out.append(value, last, length);
+    }
+    out.append('"');
+  }
+
+  private boolean appendGson(StringBuilder out, Object value) {
+    Class<?> valueClass = value.getClass();
+    String json;
+    if (stateless.get(valueClass)) {
+      json = statelessJson.computeIfAbsent(valueClass, c -> gsonRenderer.gson.toJson(value));
+    } else {
+      json = gsonRenderer.gson.toJson(value);
+    }
+    if (json.equals("null")) {
+      return false;
+    }
+    out.append(json);
+    return true;
+  }
+
+  private static class UnsupportedShapeException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedShapeException() {
+      super(null, null, false, false);
+    }
+  }
+
+  private abstract static class FieldEncoder {
+    final String name;
+    final Field field;
+
+    FieldEncoder(String name, Field field) {
+      this.name = name;
+      this.field = field;
+    }
+
+    abstract boolean append(StringBuilder out, Object owner) throws UnsupportedShapeException;
+
+    Object get(Object owner) {
+      try {
+        return field.get(owner);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException("Cannot read audit field " + field, e);
+      }
+    }
+  }
+
+  private class StringEncoder extends FieldEncoder {
+    StringEncoder(String name, Field field) {
+      super(name, field);
+    }
+
+    @Override
+    boolean append(StringBuilder out, Object owner) {
+      String value = (String) get(owner);
+      if (value == null) {
+        return false;
+      }
+      appendString(out, value);
+      return true;
+    }
+  }
+
+  private static class LongEncoder extends FieldEncoder {
+    LongEncoder(String name, Field field) {
+      super(name, field);
+    }
+
+    @Override
+    boolean append(StringBuilder out, Object owner) {
+      try {
+        out.append(field.getLong(owner));
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException("Cannot read audit field " + field, e);
+      }
+      return true;
+    }
+  }
+
+  private static class IntEncoder extends FieldEncoder {
+    IntEncoder(String name, Field field) {
+      super(name, field);
+    }
+
+    @Override
+    boolean append(StringBuilder out, Object owner) {
+      try {
+        out.append(field.getInt(owner));
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException("Cannot read audit field " + field, e);
+      }
+      return true;
+    }
+  }
+
+  private class ObjectEncoder extends FieldEncoder {
+    ObjectEncoder(String name, Field field) {
+      super(name, field);
+    }
+
+    @Override
+    boolean append(StringBuilder out, Object owner) {
+      Object value = get(owner);
+      if (value == null) {
+        return false;
+      }
+      Class<?> valueClass = value.getClass();
+      if (valueClass == String.class) {
+        appendString(out, (String) value);
+        return true;
+      }
+      if (valueClass == Integer.class || valueClass == Long.class) {
+        out.append(value);
+        return true;
+      }
+      if (excluded.get(valueClass)) {
+        // Rendered as null by Gson, hence omitted
+        return false;
+      }
+      return appendGson(out, value);
+    }
+  }
+
+  private class MultimapEncoder extends FieldEncoder {
+    MultimapEncoder(String name, Field field) {
+      super(name, field);
+    }
+
+    @Override
+    boolean append(StringBuilder out, Object owner) {
+      Object value = get(owner);
+      if (value == null) {
+        return false;
+      }
+      Class<?> valueClass = value.getClass();
+      if (excluded.get(valueClass)) {
+        return false;
+      }
+      if (stateless.get(valueClass)) {
+        out.append("{}");
+        return true;
+      }
+      return appendGson(out, value);
+    }
+  }
+
+  private class CurrentUserEncoder extends FieldEncoder {
+    CurrentUserEncoder(String name, Field field) {
+      super(name, field);
+    }
+
+    @Override
+    boolean append(StringBuilder out, Object owner) throws UnsupportedShapeException {
+      CurrentUser user = (CurrentUser) get(owner);
+      if (user == null) {
+        return false;
+      }
+      if (isAnonymousOrNonStaticLocal(user.getClass())) {
+        throw new UnsupportedShapeException();
+      }
+
+      out.append("{\"access_path\":");
+      appendString(out, user.getAccessPath().name());
+      out.append(",\"name\":");
+      appendString(out, user.getLoggableName());
+      out.append(",\"internal_user\":").append(user.isInternalUser());
+      out.append(",\"identified_user\":").append(user.isIdentifiedUser());
+      out.append(",\"impersonating\":").append(user.isImpersonating());
+      if (user.isIdentifiedUser()) {
+        out.append(",\"account_id\":").append(user.asIdentifiedUser().getAccountId().get());
+      }
+      out.append('}');
+      return true;
+    }
+  }
+
+  private class UuidEncoder extends FieldEncoder {
+    UuidEncoder(String name, Field field) {
+      super(name, field);
+    }
+
+    @Override
+    boolean append(StringBuilder out, Object owner) {
+      AuditEvent.UUID uuid = (AuditEvent.UUID) get(owner);
+      if (uuid == null) {
+        return false;
+      }
+      if (!uuidOnly.get(uuid.getClass())) {
+        return appendGson(out, uuid);
+      }
+      out.append("{\"uuid\":");
+      appendString(out, uuid.uuid());
+      out.append('}');
+      return true;
+    }
+  }
+
+  private class ReflectiveEncoder extends FieldEncoder {
+    ReflectiveEncoder(String name, Field field) {
+      super(name, field);
+    }
+
+    @Override
+    boolean append(StringBuilder out, Object owner) {
+      Object value = get(owner);
+      if (value == null) {
+        return false;
+      }
+      return appendGson(out, value);
+    }
+  }
+}
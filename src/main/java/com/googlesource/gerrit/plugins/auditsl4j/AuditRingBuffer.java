@@ -0,0 +1,231 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Bounded lock-free ring buffer with preallocated slots.
+ *
+ * <p>Producers claim a slot, fill it in place and publish it; consumers process published slots in
+ * place and release them. Claiming and releasing slots is done with per-slot sequence numbers, so
+ * that neither side ever takes a lock. What happens when the ring is full is defined by the {@link
+ * OverflowPolicy}.
+ */
+class AuditRingBuffer<T> {
+  enum OverflowPolicy {
+    BLOCK,
+    DROP_NEWEST,
+    DROP_OLDEST
+  }
+
+  private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final Object[] slots;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final OverflowPolicy overflowPolicy;
+  private final long blockTimeoutNanos;
+
+  private final AtomicLong tail = new PaddedAtomicLong();
+  private final AtomicLong head = new PaddedAtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong blocked = new AtomicLong();
+  private volatile Thread waitingConsumer;
+
+  AuditRingBuffer(
+      int minCapacity,
+      Supplier<T> slotFactory,
+      OverflowPolicy overflowPolicy,
+      long blockTimeout,
+      TimeUnit blockTimeoutUnit) {
+    int capacity = Integer.highestOneBit(Math.max(2, minCapacity) * 2 - 1);
+    this.slots = new Object[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      slots[i] = slotFactory.get();
+      sequences.set(i, i);
+    }
+    this.mask = capacity - 1;
+    this.overflowPolicy = overflowPolicy;
+    this.blockTimeoutNanos = blockTimeoutUnit.toNanos(blockTimeout);
+  }
+
+  int capacity() {
+    return slots.length;
+  }
+
+  /** Number of slots claimed by producers and not yet released by consumers. */
+  int size() {
+    return (int) Math.max(0, tail.get() - head.get());
+  }
+
+  long dropped() {
+    return dropped.get();
+  }
+
+  long blocked() {
+    return blocked.get();
+  }
+
+  /**
+   * Fills a free slot with {@code value} and publishes it, applying the overflow policy if the ring
+   * is full.
+   *
+   * @return false if the value has been dropped.
+   */
+  <V> boolean publish(V value, BiConsumer<T, V> fill) {
+    if (tryPublish(value, fill)) {
+      return true;
+    }
+
+    switch (overflowPolicy) {
+      case DROP_OLDEST:
+        do {
+          if (tryConsume(slot -> {})) {
+            dropped.incrementAndGet();
+          } else {
+            Thread.onSpinWait();
+          }
+        } while (!tryPublish(value, fill));
+        return true;
+
+      case BLOCK:
+        blocked.incrementAndGet();
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        long backoff = MIN_BACKOFF_NANOS;
+        while (true) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            break;
+          }
+          LockSupport.parkNanos(this, Math.min(backoff, remaining));
+          if (tryPublish(value, fill)) {
+            return true;
+          }
+          backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+        dropped.incrementAndGet();
+        return false;
+
+      case DROP_NEWEST:
+      default:
+        dropped.incrementAndGet();
+        return false;
+    }
+  }
+
+  /**
+   * Processes up to {@code max} published slots in place, in publication order.
+   *
+   * @return the number of slots processed.
+   */
+  int drain(int max, Consumer<T> consumer) {
+    int count = 0;
+    while (count < max && tryConsume(consumer)) {
+      count++;
+    }
+    return count;
+  }
+
+  boolean isEmpty() {
+    long pos = head.get();
+    return sequences.get((int) (pos & mask)) != pos + 1;
+  }
+
+  /** Parks the calling consumer until a slot is published or the timeout expires. */
+  void awaitPublished(long timeout, TimeUnit unit) {
+    waitingConsumer = Thread.currentThread();
+    try {
+      if (isEmpty()) {
+        LockSupport.parkNanos(this, unit.toNanos(timeout));
+      }
+    } finally {
+      waitingConsumer = null;
+    }
+  }
+
+  void wakeUpConsumer() {
+    Thread consumer = waitingConsumer;
+    if (consumer != null) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  private <V> boolean tryPublish(V value, BiConsumer<T, V> fill) {
+    long pos = tail.get();
+    while (true) {
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - pos;
+      if (diff == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          try {
+            fill.accept(slot(index), value);
+          } finally {
+            sequences.set(index, pos + 1);
+          }
+          wakeUpConsumer();
+          return true;
+        }
+        pos = tail.get();
+      } else if (diff < 0) {
+        return false;
+      } else {
+        pos = tail.get();
+      }
+    }
+  }
+
+  private boolean tryConsume(Consumer<T> consumer) {
+    long pos = head.get();
+    while (true) {
+      int index = (int) (pos & mask);
+      long diff = sequences.get(index) - (pos + 1);
+      if (diff == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          try {
+            consumer.accept(slot(index));
+          } finally {
+            sequences.set(index, pos + slots.length);
+          }
+          return true;
+        }
+        pos = head.get();
+      } else if (diff < 0) {
+        return false;
+      } else {
+        pos = head.get();
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private T slot(int index) {
+    return (T) slots[index];
+  }
+
+  /** Keeps the counters updated by producers and consumers on separate cache lines. */
+  @SuppressWarnings({"serial", "unused"})
+  private static final class PaddedAtomicLong extends AtomicLong {
+    private long p1, p2, p3, p4, p5, p6, p7;
+  }
+}
@@ -14,10 +14,22 @@
 
 package com.googlesource.gerrit.plugins.auditsl4j;
 
+import com.google.gerrit.server.AuditEvent;
 import com.google.inject.ImplementedBy;
 
 @ImplementedBy(AuditWriterToLogger.class)
 public interface AuditWriter {
 
   void write(String msg);
+
+  /** Writes the rendered {@code msg} of {@code auditEvent}. */
+  default void write(AuditEvent auditEvent, String msg) {
+    write(msg);
+  }
+
+  /**
+   * Completes the records written so far, called after each record or batch of records. Writers
+   * buffering records can use it to send them together.
+   */
+  default void flush() {}
 }
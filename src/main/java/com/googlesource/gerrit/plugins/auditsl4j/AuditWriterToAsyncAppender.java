@@ -18,40 +18,165 @@ import com.google.gerrit.server.util.SystemLog;
 import com.google.gerrit.server.util.time.TimeUtil;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.log4j.AppenderSkeleton;
 import org.apache.log4j.AsyncAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PatternLayout;
 import org.apache.log4j.spi.LoggingEvent;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Writes the audit records to a log4j {@link AsyncAppender}.
+ *
+ * <p>Records take one of {@code bufferSize} slots, released once the appender has dispatched them.
+ * When no slot is free, records either wait for one, blocking the calling thread until the appender
+ * catches up, or are discarded before reaching the appender. Saturation is reported in the Gerrit
+ * error log at most every {@link #WARN_INTERVAL_MS}, with a summary of the records discarded in the
+ * meantime.
+ */
 @Singleton
 public class AuditWriterToAsyncAppender implements AuditWriter {
-  private final Logger log = Logger.getLogger(LoggerAudit.AUDIT_LOGGER_NAME);
+  private static final org.slf4j.Logger log =
+      LoggerFactory.getLogger(AuditWriterToAsyncAppender.class);
+  private static final Logger auditLogger = Logger.getLogger(LoggerAudit.AUDIT_LOGGER_NAME);
+
+  static final long WARN_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+
   private final AsyncAppender appender;
+  private final int bufferSize;
+  private final boolean blocking;
+  private final Semaphore slots;
+  private final AtomicLong discarded = new AtomicLong();
+  private final AtomicLong saturations = new AtomicLong();
+  private final AtomicLong lastWarnMs = new AtomicLong();
+  private long reportedDiscarded;
+  private long reportedSaturations;
 
   @Inject
-  public AuditWriterToAsyncAppender(AuditConfig config, SystemLog systemLog) {
-    String logName = config.getLogName().get();
-    appender = systemLog.createAsyncAppender(logName, new PatternLayout());
+  public AuditWriterToAsyncAppender(AuditConfig config, SystemLog systemLog, AuditMetrics metrics) {
+    this(
+        systemLog.createAsyncAppender(config.getLogName().get(), new PatternLayout()),
+        config.getAsyncBufferSize(),
+        config.isAsyncBlocking(),
+        metrics);
+  }
+
+  AuditWriterToAsyncAppender(
+      AsyncAppender appender, int bufferSize, boolean blocking, AuditMetrics metrics) {
+    this.appender = appender;
+    if (bufferSize > 0) {
+      appender.setBufferSize(bufferSize);
+    }
+    // Discarding is done before reaching the appender: log4j would otherwise write its own
+    // summary of the discarded events into the audit log. Holding a slot for each record in the
+    // appender, it never blocks.
+    appender.setBlocking(true);
+    appender.setLocationInfo(false);
+    this.bufferSize = appender.getBufferSize();
+    this.blocking = blocking;
+    this.slots = new Semaphore(this.bufferSize);
+    appender.addAppender(new SlotReleaser(slots));
+    metrics.registerBacklog("async_appender", this::backlog);
+    metrics.registerDropped("async_appender", this::discarded);
   }
 
   @Override
   public void write(String auditBody) {
-    appender.append(newLoggingEvent(auditBody));
+    long now = TimeUtil.nowMs();
+    if (!slots.tryAcquire()) {
+      saturations.incrementAndGet();
+      if (!blocking) {
+        discarded.incrementAndGet();
+        warnIfDue(now);
+        return;
+      }
+      warnIfDue(now);
+      slots.acquireUninterruptibly();
+    }
+    appender.append(newLoggingEvent(now, auditBody));
+  }
+
+  /** Number of audit records appended but not yet dispatched by the async appender. */
+  long backlog() {
+    return bufferSize - slots.availablePermits();
+  }
+
+  long discarded() {
+    return discarded.get();
+  }
+
+  long saturations() {
+    return saturations.get();
   }
 
-  private LoggingEvent newLoggingEvent(String auditBody) {
+  private void warnIfDue(long now) {
+    long last = lastWarnMs.get();
+    if (now - last >= WARN_INTERVAL_MS && lastWarnMs.compareAndSet(last, now)) {
+      warnSaturated();
+    }
+  }
+
+  private synchronized void warnSaturated() {
+    long totalSaturations = saturations.get();
+    long totalDiscarded = discarded.get();
+    if (blocking) {
+      log.warn(
+          "Audit async appender buffer of {} records is full: {} audit records waited for a free"
+              + " slot since the last report ({} in total)",
+          bufferSize,
+          totalSaturations - reportedSaturations,
+          totalSaturations);
+    } else {
+      log.warn(
+          "Audit async appender buffer of {} records is full: discarded {} audit records since the"
+              + " last report ({} in total)",
+          bufferSize,
+          totalDiscarded - reportedDiscarded,
+          totalDiscarded);
+    }
+    reportedSaturations = totalSaturations;
+    reportedDiscarded = totalDiscarded;
+  }
+
+  private static LoggingEvent newLoggingEvent(long when, String auditBody) {
     return new LoggingEvent( //
         LoggerAudit.AUDIT_LOGGER_NAME,
-        log, // logger
-        TimeUtil.nowMs(), // when
+        auditLogger, // logger
+        when, // when
         Level.INFO, // level
         auditBody, // message text
-        "HTTPD", // thread name
+        Thread.currentThread().getName(), // thread name
         null, // exception information
         null, // current NDC string
         null, // caller location
         null // MDC properties
         );
   }
+
+  /** Releases the slot of each record dispatched by the async appender to its appenders. */
+  private static class SlotReleaser extends AppenderSkeleton {
+    private final Semaphore slots;
+
+    SlotReleaser(Semaphore slots) {
+      this.slots = slots;
+      setName("audit-sl4j-slot-releaser");
+    }
+
+    @Override
+    protected void append(LoggingEvent event) {
+      slots.release();
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public boolean requiresLayout() {
+      return false;
+    }
+  }
 }
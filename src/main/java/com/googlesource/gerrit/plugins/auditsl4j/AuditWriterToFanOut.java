@@ -0,0 +1,123 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.AuditEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes every audit record to several sinks, each one behind its own {@link
+ * AuditWriterToRingBuffer}.
+ *
+ * <p>Each sink is drained by its own background thread, so a slow sink only fills its own queue,
+ * where the configured overflow policy applies, without delaying the other sinks or the threads
+ * generating the records.
+ */
+@Singleton
+public class AuditWriterToFanOut implements AuditByteWriter, LifecycleListener {
+  private final Map<AuditWriterTypes, AuditWriterToRingBuffer> queues;
+
+  @Inject
+  public AuditWriterToFanOut(
+      Map<AuditWriterTypes, AuditWriter> sinks, AuditConfig config, AuditMetrics metrics) {
+    this(
+        sinks,
+        config.getSinkQueueSize(),
+        config.getOverflowPolicy(),
+        config.getOverflowTimeoutMs(),
+        config.getBatchSize());
+    for (Map.Entry<AuditWriterTypes, AuditWriterToRingBuffer> queue : queues.entrySet()) {
+      AuditWriterToRingBuffer writer = queue.getValue();
+      metrics.registerQueue(
+          "sink_" + queue.getKey().name().toLowerCase(Locale.US),
+          writer::queued,
+          writer::dropped,
+          writer::lagMs);
+    }
+  }
+
+  AuditWriterToFanOut(
+      Map<AuditWriterTypes, ? extends AuditWriter> sinks,
+      int queueSize,
+      AuditRingBuffer.OverflowPolicy overflowPolicy,
+      long overflowTimeoutMs,
+      int batchSize) {
+    Map<AuditWriterTypes, AuditWriterToRingBuffer> queues = new LinkedHashMap<>();
+    for (Map.Entry<AuditWriterTypes, ? extends AuditWriter> sink : sinks.entrySet()) {
+      queues.put(
+          sink.getKey(),
+          new AuditWriterToRingBuffer(
+              "sink-" + sink.getKey().name().toLowerCase(Locale.US).replace('_', '-'),
+              sink.getValue(),
+              queueSize,
+              overflowPolicy,
+              overflowTimeoutMs,
+              batchSize));
+    }
+    this.queues = Collections.unmodifiableMap(queues);
+  }
+
+  @Override
+  public void write(AuditRecordBuffer record) {
+    for (AuditWriterToRingBuffer queue : queues.values()) {
+      queue.write(record);
+    }
+  }
+
+  @Override
+  public void write(AuditEvent auditEvent, AuditRecordBuffer record) {
+    for (AuditWriterToRingBuffer queue : queues.values()) {
+      queue.write(auditEvent, record);
+    }
+  }
+
+  @Override
+  public void write(String msg) {
+    for (AuditWriterToRingBuffer queue : queues.values()) {
+      queue.write(msg);
+    }
+  }
+
+  @Override
+  public void write(AuditEvent auditEvent, String msg) {
+    for (AuditWriterToRingBuffer queue : queues.values()) {
+      queue.write(auditEvent, msg);
+    }
+  }
+
+  @Override
+  public void start() {
+    for (AuditWriterToRingBuffer queue : queues.values()) {
+      queue.start();
+    }
+  }
+
+  @Override
+  public void stop() {
+    for (AuditWriterToRingBuffer queue : queues.values()) {
+      queue.stop();
+    }
+  }
+
+  AuditWriterToRingBuffer queue(AuditWriterTypes sink) {
+    return queues.get(sink);
+  }
+}
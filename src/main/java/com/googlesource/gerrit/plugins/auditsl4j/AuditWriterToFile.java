@@ -0,0 +1,292 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.metrics.Timer0;
+import com.google.gerrit.server.config.SitePaths;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends audit records to a file under the Gerrit logs directory.
+ *
+ * <p>Records written concurrently are coalesced into a single batch: the first writer finding no
+ * batch in progress becomes the committer and writes everything appended by the other writers in
+ * the meantime. Each committer writes a single batch: the writers whose records arrived during its
+ * commit wait for it to complete and one of them commits the next batch, so that no writer waits
+ * for more than two batches. Batches are flushed to disk according to the {@link
+ * DurabilityPolicy}. Records of a batch that cannot be written are counted as dropped.
+ */
+@Singleton
+public class AuditWriterToFile implements AuditByteWriter, LifecycleListener {
+  private static final Logger log = LoggerFactory.getLogger(AuditWriterToFile.class);
+
+  static final String DEFAULT_LOG_NAME = "audit_log";
+
+  private static final int BATCH_CAPACITY = 64 * 1024;
+  private static final int MAX_PENDING_BYTES = 4 * 1024 * 1024;
+
+  enum DurabilityPolicy {
+    NEVER,
+    INTERVAL,
+    RECORDS,
+    BATCH
+  }
+
+  private final Path path;
+  private final FileChannel channel;
+  private final DurabilityPolicy durabilityPolicy;
+  private final long fsyncIntervalMs;
+  private final long fsyncRecords;
+  private final Timer0 writeLatency;
+  private final Timer0 syncLatency;
+
+  private final Object lock = new Object();
+  private AuditRecordBuffer pending = new AuditRecordBuffer(BATCH_CAPACITY);
+  private AuditRecordBuffer spare = new AuditRecordBuffer(BATCH_CAPACITY);
+  private int pendingRecords;
+  private long openBatch = 1;
+  private long committedBatch;
+  private boolean committing;
+
+  private final AtomicLong unsyncedRecords = new AtomicLong();
+  private final AtomicLong commits = new AtomicLong();
+  private final AtomicLong fsyncs = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private volatile long lastFsyncNanos = System.nanoTime();
+  private ScheduledExecutorService fsyncTimer;
+
+  @Inject
+  public AuditWriterToFile(AuditConfig config, SitePaths sitePaths, AuditMetrics metrics)
+      throws IOException {
+    this(
+        sitePaths.logs_dir.resolve(config.getLogName().orElse(DEFAULT_LOG_NAME)),
+        config.getDurabilityPolicy(),
+        config.getFsyncIntervalMs(),
+        config.getFsyncRecords(),
+        metrics);
+  }
+
+  AuditWriterToFile(
+      Path path,
+      DurabilityPolicy durabilityPolicy,
+      long fsyncIntervalMs,
+      long fsyncRecords,
+      AuditMetrics metrics)
+      throws IOException {
+    this.path = path;
+    this.durabilityPolicy = durabilityPolicy;
+    this.fsyncIntervalMs = fsyncIntervalMs;
+    this.fsyncRecords = fsyncRecords;
+    this.writeLatency = metrics.newWriteTimer("file");
+    this.syncLatency = metrics.newSyncTimer("file");
+    metrics.registerDropped("file", this::dropped);
+    channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+  }
+
+  @Override
+  public void write(AuditRecordBuffer record) {
+    boolean interrupted = false;
+    synchronized (lock) {
+      while (committing && pending.length() >= MAX_PENDING_BYTES) {
+        interrupted |= awaitCommit();
+      }
+      pending.append(record).append('\n');
+      pendingRecords++;
+      long batch = openBatch;
+      while (committing && committedBatch < batch) {
+        interrupted |= awaitCommit();
+      }
+      if (committedBatch >= batch) {
+        return;
+      }
+      committing = true;
+    }
+    try {
+      commitPending();
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    if (durabilityPolicy == DurabilityPolicy.INTERVAL && fsyncTimer == null) {
+      fsyncTimer =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder().setNameFormat("audit-sl4j-fsync").setDaemon(true).build());
+      fsyncTimer.scheduleWithFixedDelay(
+          this::fsyncIfDue, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (fsyncTimer != null) {
+      fsyncTimer.shutdownNow();
+      fsyncTimer = null;
+    }
+    try {
+      synchronized (lock) {
+        while (committing) {
+          lock.wait();
+        }
+        committing = true;
+      }
+      commitPending();
+      if (durabilityPolicy != DurabilityPolicy.NEVER) {
+        fsync();
+      }
+      channel.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      log.error("Unable to close audit log {}", path, e);
+    }
+  }
+
+  long commits() {
+    return commits.get();
+  }
+
+  long fsyncs() {
+    return fsyncs.get();
+  }
+
+  long dropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Waits, holding {@link #lock}, for the batch being committed to complete. Writers keep waiting
+   * when interrupted, as their records could otherwise be left in a batch that nobody commits.
+   *
+   * @return whether the thread was interrupted while waiting.
+   */
+  private boolean awaitCommit() {
+    try {
+      lock.wait();
+      return false;
+    } catch (InterruptedException e) {
+      return true;
+    }
+  }
+
+  /** Commits the open batch, if any, and hands the commit of the next one over. */
+  private void commitPending() {
+    AuditRecordBuffer batch;
+    int records;
+    long batchId;
+    synchronized (lock) {
+      batch = pending;
+      records = pendingRecords;
+      batchId = openBatch++;
+      pending = spare;
+      pendingRecords = 0;
+      lock.notifyAll();
+    }
+
+    if (records > 0) {
+      commit(batch, records);
+    }
+
+    if (batch.capacity() > MAX_PENDING_BYTES) {
+      batch.trimTo(BATCH_CAPACITY);
+    }
+    synchronized (lock) {
+      spare = batch.reset();
+      committedBatch = batchId;
+      committing = false;
+      lock.notifyAll();
+    }
+  }
+
+  private void commit(AuditRecordBuffer batch, int records) {
+    try {
+      ByteBuffer src = batch.asByteBuffer();
+      long start = System.nanoTime();
+      while (src.hasRemaining()) {
+        channel.write(src);
+      }
+      writeLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      commits.incrementAndGet();
+      long unsynced = unsyncedRecords.addAndGet(records);
+      if (isFsyncDue(unsynced)) {
+        fsync();
+      }
+    } catch (IOException e) {
+      long total = dropped.addAndGet(records);
+      log.error(
+          "Unable to write {} audit records to {}, dropping them ({} in total)",
+          records,
+          path,
+          total,
+          e);
+    }
+  }
+
+  private boolean isFsyncDue(long unsynced) {
+    switch (durabilityPolicy) {
+      case BATCH:
+        return true;
+      case RECORDS:
+        return unsynced >= fsyncRecords;
+      case INTERVAL:
+        return System.nanoTime() - lastFsyncNanos >= TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMs);
+      case NEVER:
+      default:
+        return false;
+    }
+  }
+
+  private void fsyncIfDue() {
+    try {
+      if (unsyncedRecords.get() > 0 && isFsyncDue(unsyncedRecords.get())) {
+        fsync();
+      }
+    } catch (IOException e) {
+      log.error("Unable to flush audit log {} to disk", path, e);
+    }
+  }
+
+  private void fsync() throws IOException {
+    long unsynced = unsyncedRecords.getAndSet(0);
+    if (unsynced == 0 || !channel.isOpen()) {
+      return;
+    }
+    long start = System.nanoTime();
+    lastFsyncNanos = start;
+    channel.force(false);
+    syncLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    fsyncs.incrementAndGet();
+  }
+}
@@ -0,0 +1,355 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.metrics.Timer0;
+import com.google.gerrit.server.config.SitePaths;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditWriterToFile.DurabilityPolicy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends audit records to pre-sized memory-mapped segment files named {@code
+ * <logName>.<period>.<seq>.seg}.
+ *
+ * <p>A new segment is started when the current one is full or when the {@link RollPeriod} changes.
+ * The unused tail of a segment is truncated when it is closed. On start, the most recent segment is
+ * truncated after its last complete record, in case it was not closed. Segments are forced to disk
+ * according to the {@link DurabilityPolicy}.
+ *
+ * <p>There is no supported way to unmap a segment: the mapping of a closed segment is only released
+ * when it is garbage collected, which can keep several segments worth of address space mapped.
+ */
+@Singleton
+public class AuditWriterToMappedSegments implements AuditByteWriter, LifecycleListener {
+  private static final Logger log = LoggerFactory.getLogger(AuditWriterToMappedSegments.class);
+
+  static final String SEGMENT_SUFFIX = ".seg";
+  private static final int RECOVERY_BUFFER_SIZE = 64 * 1024;
+
+  enum RollPeriod {
+    HOUR(ChronoUnit.HOURS, "yyyy-MM-dd-HH"),
+    DAY(ChronoUnit.DAYS, "yyyy-MM-dd");
+
+    private final ChronoUnit unit;
+    private final DateTimeFormatter formatter;
+
+    RollPeriod(ChronoUnit unit, String pattern) {
+      this.unit = unit;
+      this.formatter = DateTimeFormatter.ofPattern(pattern);
+    }
+  }
+
+  private final Path dir;
+  private final String baseName;
+  private final int segmentSize;
+  private final RollPeriod rollPeriod;
+  private final DurabilityPolicy durabilityPolicy;
+  private final long fsyncIntervalMs;
+  private final long fsyncRecords;
+  private final LongSupplier clock;
+  private final Timer0 writeLatency;
+  private final Timer0 syncLatency;
+  private final ZoneId zone = ZoneId.systemDefault();
+
+  private Path segmentPath;
+  private FileChannel channel;
+  private MappedByteBuffer mapping;
+  private String period;
+  private int seq;
+  private long periodEndMs;
+  private long unsyncedRecords;
+  private long lastFsyncMs;
+  private long segments;
+  private long dropped;
+  private ScheduledExecutorService fsyncTimer;
+
+  @Inject
+  public AuditWriterToMappedSegments(
+      AuditConfig config, SitePaths sitePaths, AuditMetrics metrics) {
+    this(
+        sitePaths.logs_dir,
+        config.getLogName().orElse(AuditWriterToFile.DEFAULT_LOG_NAME),
+        config.getSegmentSize(),
+        config.getSegmentRollPeriod(),
+        config.getDurabilityPolicy(),
+        config.getFsyncIntervalMs(),
+        config.getFsyncRecords(),
+        System::currentTimeMillis,
+        metrics);
+  }
+
+  AuditWriterToMappedSegments(
+      Path dir,
+      String baseName,
+      int segmentSize,
+      RollPeriod rollPeriod,
+      DurabilityPolicy durabilityPolicy,
+      long fsyncIntervalMs,
+      long fsyncRecords,
+      LongSupplier clock,
+      AuditMetrics metrics) {
+    this.dir = dir;
+    this.baseName = baseName;
+    this.segmentSize = segmentSize;
+    this.rollPeriod = rollPeriod;
+    this.durabilityPolicy = durabilityPolicy;
+    this.fsyncIntervalMs = fsyncIntervalMs;
+    this.fsyncRecords = fsyncRecords;
+    this.clock = clock;
+    this.writeLatency = metrics.newWriteTimer("mmap");
+    this.syncLatency = metrics.newSyncTimer("mmap");
+    metrics.registerBacklog("mmap", this::unsyncedRecords);
+    metrics.registerDropped("mmap", this::dropped);
+  }
+
+  @Override
+  public void write(AuditRecordBuffer record) {
+    ByteBuffer src = record.asByteBuffer();
+    int length = src.remaining() + 1;
+    synchronized (this) {
+      try {
+        long now = clock.getAsLong();
+        if (mapping == null || now >= periodEndMs || mapping.remaining() < length) {
+          roll(now, length);
+        }
+        long start = System.nanoTime();
+        mapping.put(src).put((byte) '\n');
+        writeLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        unsyncedRecords++;
+        if (isForceDue(now)) {
+          force(now);
+        }
+      } catch (IOException e) {
+        dropped++;
+        log.error("Unable to write audit record to {}, dropping it", segmentPath, e);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    if (mapping == null) {
+      recoverLastSegment();
+    }
+    if (durabilityPolicy == DurabilityPolicy.INTERVAL && fsyncTimer == null) {
+      fsyncTimer =
+          Executors.newSingleThreadScheduledExecutor(
+              new ThreadFactoryBuilder().setNameFormat("audit-sl4j-fsync").setDaemon(true).build());
+      fsyncTimer.scheduleWithFixedDelay(
+          this::forceIfDue, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (fsyncTimer != null) {
+      fsyncTimer.shutdownNow();
+      fsyncTimer = null;
+    }
+    try {
+      closeSegment();
+    } catch (IOException e) {
+      log.error("Unable to close audit log segment {}", segmentPath, e);
+    }
+  }
+
+  synchronized long segments() {
+    return segments;
+  }
+
+  synchronized long unsyncedRecords() {
+    return unsyncedRecords;
+  }
+
+  synchronized long dropped() {
+    return dropped;
+  }
+
+  private void roll(long now, int minSize) throws IOException {
+    closeSegment();
+
+    ZonedDateTime periodStart =
+        Instant.ofEpochMilli(now).atZone(zone).truncatedTo(rollPeriod.unit);
+    String nowPeriod = rollPeriod.formatter.format(periodStart);
+    if (!nowPeriod.equals(period)) {
+      period = nowPeriod;
+      periodEndMs = periodStart.plus(1, rollPeriod.unit).toInstant().toEpochMilli();
+      seq = lastSegmentSeq(period);
+    }
+    seq++;
+
+    segmentPath = dir.resolve(String.format("%s.%s.%08d%s", baseName, period, seq, SEGMENT_SUFFIX));
+    FileChannel newChannel =
+        FileChannel.open(
+            segmentPath,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+    try {
+      mapping = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentSize, minSize));
+    } catch (IOException | RuntimeException e) {
+      try {
+        newChannel.close();
+        Files.deleteIfExists(segmentPath);
+      } catch (IOException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+    channel = newChannel;
+    segments++;
+  }
+
+  private void closeSegment() throws IOException {
+    if (mapping == null) {
+      return;
+    }
+    try {
+      if (durabilityPolicy != DurabilityPolicy.NEVER && unsyncedRecords > 0) {
+        force(clock.getAsLong());
+      }
+    } finally {
+      try {
+        channel.truncate(mapping.position());
+      } finally {
+        mapping = null;
+        channel.close();
+        channel = null;
+      }
+    }
+  }
+
+  private void recoverLastSegment() {
+    Path last = null;
+    try {
+      try (DirectoryStream<Path> existing =
+          Files.newDirectoryStream(dir, baseName + ".*" + SEGMENT_SUFFIX)) {
+        for (Path segment : existing) {
+          if (last == null || segment.compareTo(last) > 0) {
+            last = segment;
+          }
+        }
+      }
+      if (last != null) {
+        truncateAfterLastRecord(last);
+      }
+    } catch (IOException e) {
+      log.error("Unable to recover audit log segment {}", last, e);
+    }
+  }
+
+  /** Truncates {@code segment} after its last newline, dropping the unused or partial tail. */
+  private static void truncateAfterLastRecord(Path segment) throws IOException {
+    try (FileChannel channel =
+        FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long size = channel.size();
+      ByteBuffer buf = ByteBuffer.allocate(RECOVERY_BUFFER_SIZE);
+      long length = 0;
+      long end = size;
+      scan:
+      while (end > 0) {
+        long start = Math.max(0, end - buf.capacity());
+        buf.clear().limit((int) (end - start));
+        while (buf.hasRemaining() && channel.read(buf, start + buf.position()) >= 0) {}
+        for (int i = buf.position() - 1; i >= 0; i--) {
+          if (buf.get(i) == '\n') {
+            length = start + i + 1;
+            break scan;
+          }
+        }
+        end = start;
+      }
+      if (length < size) {
+        log.warn(
+            "Truncating audit log segment {} from {} to {} bytes, after its last record",
+            segment,
+            size,
+            length);
+        channel.truncate(length);
+      }
+    }
+  }
+
+  private int lastSegmentSeq(String period) throws IOException {
+    String prefix = baseName + "." + period + ".";
+    int last = 0;
+    try (DirectoryStream<Path> existing =
+        Files.newDirectoryStream(dir, prefix + "*" + SEGMENT_SUFFIX)) {
+      for (Path segment : existing) {
+        String name = segment.getFileName().toString();
+        try {
+          last =
+              Math.max(
+                  last,
+                  Integer.parseInt(
+                      name.substring(prefix.length(), name.length() - SEGMENT_SUFFIX.length())));
+        } catch (NumberFormatException e) {
+          // Not one of our segments
+        }
+      }
+    }
+    return last;
+  }
+
+  private boolean isForceDue(long now) {
+    switch (durabilityPolicy) {
+      case BATCH:
+        return true;
+      case RECORDS:
+        return unsyncedRecords >= fsyncRecords;
+      case INTERVAL:
+        return now - lastFsyncMs >= fsyncIntervalMs;
+      case NEVER:
+      default:
+        return false;
+    }
+  }
+
+  private synchronized void forceIfDue() {
+    if (mapping != null && unsyncedRecords > 0) {
+      force(clock.getAsLong());
+    }
+  }
+
+  private void force(long now) {
+    long start = System.nanoTime();
+    mapping.force();
+    syncLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    unsyncedRecords = 0;
+    lastFsyncMs = now;
+  }
+}
@@ -0,0 +1,250 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.AuditEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues audit records into a preallocated {@link AuditRingBuffer} and writes them to the {@link
+ * AuditSink} from a single background thread, in batches.
+ *
+ * <p>Request threads only copy the rendered record into a free slot of the ring, so a slow sink
+ * never delays them beyond what the configured overflow policy allows.
+ */
+@Singleton
+public class AuditWriterToRingBuffer implements AuditByteWriter, LifecycleListener {
+  private static final Logger log = LoggerFactory.getLogger(AuditWriterToRingBuffer.class);
+
+  private static final int MAX_RETAINED_SLOT = 64 * 1024;
+  private static final long IDLE_WAIT_MS = 100;
+  private static final long STOP_TIMEOUT_MS = 10000;
+
+  private static class QueuedRecord {
+    final AuditRecordBuffer record = new AuditRecordBuffer();
+    AuditEvent auditEvent;
+    long queuedAtMs;
+  }
+
+  private final String name;
+  private final AuditWriter sink;
+  private final AuditByteWriter byteSink;
+  private final AuditRingBuffer<QueuedRecord> ring;
+  private final int batchSize;
+
+  private volatile boolean running;
+  private volatile long headQueuedAtMs;
+  private Thread consumer;
+  private long reportedDropped;
+
+  @Inject
+  public AuditWriterToRingBuffer(
+      @AuditSink AuditWriter sink, AuditConfig config, AuditMetrics metrics) {
+    this(
+        sink,
+        config.getRingBufferSize(),
+        config.getOverflowPolicy(),
+        config.getOverflowTimeoutMs(),
+        config.getBatchSize());
+    metrics.registerQueue("ring_buffer", this::queued, this::dropped, this::lagMs);
+  }
+
+  AuditWriterToRingBuffer(
+      AuditWriter sink,
+      int ringBufferSize,
+      AuditRingBuffer.OverflowPolicy overflowPolicy,
+      long overflowTimeoutMs,
+      int batchSize) {
+    this("writer", sink, ringBufferSize, overflowPolicy, overflowTimeoutMs, batchSize);
+  }
+
+  AuditWriterToRingBuffer(
+      String name,
+      AuditWriter sink,
+      int ringBufferSize,
+      AuditRingBuffer.OverflowPolicy overflowPolicy,
+      long overflowTimeoutMs,
+      int batchSize) {
+    this.name = name;
+    this.sink = sink;
+    this.byteSink = sink instanceof AuditByteWriter ? (AuditByteWriter) sink : null;
+    this.ring =
+        new AuditRingBuffer<>(
+            ringBufferSize,
+            QueuedRecord::new,
+            overflowPolicy,
+            overflowTimeoutMs,
+            TimeUnit.MILLISECONDS);
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  public void write(AuditRecordBuffer record) {
+    publish(null, record);
+  }
+
+  @Override
+  public void write(AuditEvent auditEvent, AuditRecordBuffer record) {
+    publish(auditEvent, record);
+  }
+
+  @Override
+  public void write(String msg) {
+    publish(null, msg);
+  }
+
+  @Override
+  public void write(AuditEvent auditEvent, String msg) {
+    publish(auditEvent, msg);
+  }
+
+  @Override
+  public synchronized void start() {
+    if (consumer != null) {
+      return;
+    }
+    running = true;
+    consumer = new Thread(this::drainLoop, "audit-sl4j-" + name);
+    consumer.setDaemon(true);
+    consumer.start();
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (consumer == null) {
+      return;
+    }
+    running = false;
+    ring.wakeUpConsumer();
+    try {
+      consumer.join(STOP_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (consumer.isAlive()) {
+      log.warn(
+          "Audit {} did not drain {} queued records before stopping", name, ring.size());
+    }
+    consumer = null;
+  }
+
+  long dropped() {
+    return ring.dropped();
+  }
+
+  long blocked() {
+    return ring.blocked();
+  }
+
+  int queued() {
+    return ring.size();
+  }
+
+  /** Time spent in the queue by the record being written, or 0 when the queue is idle. */
+  long lagMs() {
+    long queuedAtMs = headQueuedAtMs;
+    return queuedAtMs == 0 ? 0 : Math.max(0, System.currentTimeMillis() - queuedAtMs);
+  }
+
+  /**
+   * Queues {@code record}, keeping the {@code auditEvent} it was rendered from, if any, for the
+   * sink.
+   */
+  private void publish(AuditEvent auditEvent, AuditRecordBuffer record) {
+    ring.publish(
+        record,
+        (slot, r) -> {
+          slot.record.reset().append(r);
+          slot.auditEvent = auditEvent;
+          slot.queuedAtMs = System.currentTimeMillis();
+        });
+  }
+
+  private void publish(AuditEvent auditEvent, String msg) {
+    ring.publish(
+        msg,
+        (slot, m) -> {
+          slot.record.reset().append(m);
+          slot.auditEvent = auditEvent;
+          slot.queuedAtMs = System.currentTimeMillis();
+        });
+  }
+
+  private void drainLoop() {
+    while (running || !ring.isEmpty()) {
+      if (ring.drain(batchSize, this::writeToSink) > 0) {
+        flushSink();
+      } else {
+        headQueuedAtMs = 0;
+        reportDropped();
+        if (running) {
+          ring.awaitPublished(IDLE_WAIT_MS, TimeUnit.MILLISECONDS);
+        }
+      }
+    }
+    reportDropped();
+  }
+
+  private void writeToSink(QueuedRecord queued) {
+    AuditRecordBuffer slot = queued.record;
+    AuditEvent auditEvent = queued.auditEvent;
+    // Not retained by the slot until it is reused
+    queued.auditEvent = null;
+    headQueuedAtMs = queued.queuedAtMs;
+    try {
+      if (byteSink != null && auditEvent != null) {
+        byteSink.write(auditEvent, slot);
+      } else if (byteSink != null) {
+        byteSink.write(slot);
+      } else if (auditEvent != null) {
+        sink.write(auditEvent, slot.toString());
+      } else {
+        sink.write(slot.toString());
+      }
+    } catch (RuntimeException e) {
+      log.error("Unable to write audit record to the {}", name, e);
+    } finally {
+      if (slot.capacity() > MAX_RETAINED_SLOT) {
+        slot.trimTo(AuditRecordBuffer.DEFAULT_CAPACITY);
+      }
+    }
+  }
+
+  private void flushSink() {
+    try {
+      sink.flush();
+    } catch (RuntimeException e) {
+      log.error("Unable to flush audit records to the {}", name, e);
+    }
+  }
+
+  private void reportDropped() {
+    long dropped = ring.dropped();
+    if (dropped > reportedDropped) {
+      log.warn(
+          "Dropped {} audit records because the {} queue of {} records was full ({} in total)",
+          dropped - reportedDropped,
+          name,
+          ring.capacity(),
+          dropped);
+      reportedDropped = dropped;
+    }
+  }
+}
@@ -0,0 +1,310 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.server.AuditEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues audit records into one {@link AuditRingBuffer} per stripe of producer threads and merges
+ * them by event timestamp into the {@link AuditSink} from a single background thread.
+ *
+ * <p>Producers of different stripes share no state: the tiebreak between records with the same
+ * timestamp is the sequence number of the record in its stripe, then the stripe number. Records
+ * are held back for the merge window before being written, so that records of events started
+ * earlier but completed later can still be written in timestamp order. Records arriving after the
+ * window of newer records has expired are written as soon as possible and counted as late.
+ */
+@Singleton
+public class AuditWriterToStripes implements AuditByteWriter, LifecycleListener {
+  private static final Logger log = LoggerFactory.getLogger(AuditWriterToStripes.class);
+
+  private static final int MAX_RETAINED_SLOT = 64 * 1024;
+  private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  private static final long STOP_TIMEOUT_MS = 10000;
+
+  private static class StripeSlot {
+    final AuditRecordBuffer record = new AuditRecordBuffer();
+    long when;
+  }
+
+  private static class PendingRecord {
+    AuditRecordBuffer record;
+    long when;
+    long seq;
+    int stripe;
+  }
+
+  private static final Comparator<PendingRecord> RECORD_ORDER =
+      Comparator.<PendingRecord>comparingLong(r -> r.when)
+          .thenComparingLong(r -> r.seq)
+          .thenComparingInt(r -> r.stripe);
+
+  private final AuditWriter sink;
+  private final AuditByteWriter byteSink;
+  private final AuditRingBuffer<StripeSlot>[] stripes;
+  private final long[] stripeSeqs;
+  private final int stripeMask;
+  private final long mergeWindowMs;
+
+  private final PriorityQueue<PendingRecord> pending = new PriorityQueue<>(RECORD_ORDER);
+  private final ArrayDeque<PendingRecord> free = new ArrayDeque<>();
+  private final AtomicLong late = new AtomicLong();
+  private long lastWrittenWhen = Long.MIN_VALUE;
+  private long reportedDropped;
+
+  private volatile boolean running;
+  private Thread merger;
+
+  @Inject
+  public AuditWriterToStripes(
+      @AuditSink AuditWriter sink, AuditConfig config, AuditMetrics metrics) {
+    this(
+        sink,
+        config.getStripes(),
+        config.getStripeSize(),
+        config.getOverflowPolicy(),
+        config.getOverflowTimeoutMs(),
+        config.getMergeWindowMs());
+    metrics.registerQueue("stripes", this::queued, this::dropped);
+  }
+
+  @SuppressWarnings("unchecked")
+  AuditWriterToStripes(
+      AuditWriter sink,
+      int numStripes,
+      int stripeSize,
+      AuditRingBuffer.OverflowPolicy overflowPolicy,
+      long overflowTimeoutMs,
+      long mergeWindowMs) {
+    this.sink = sink;
+    this.byteSink = sink instanceof AuditByteWriter ? (AuditByteWriter) sink : null;
+    this.stripes = new AuditRingBuffer[Integer.highestOneBit(Math.max(1, numStripes) * 2 - 1)];
+    for (int i = 0; i < stripes.length; i++) {
+      stripes[i] =
+          new AuditRingBuffer<>(
+              stripeSize,
+              StripeSlot::new,
+              overflowPolicy,
+              overflowTimeoutMs,
+              TimeUnit.MILLISECONDS);
+    }
+    this.stripeSeqs = new long[stripes.length];
+    this.stripeMask = stripes.length - 1;
+    this.mergeWindowMs = mergeWindowMs;
+  }
+
+  @Override
+  public void write(AuditEvent auditEvent, AuditRecordBuffer record) {
+    publish(auditEvent.when, record);
+  }
+
+  @Override
+  public void write(AuditEvent auditEvent, String msg) {
+    publish(auditEvent.when, msg);
+  }
+
+  @Override
+  public void write(AuditRecordBuffer record) {
+    publish(System.currentTimeMillis(), record);
+  }
+
+  @Override
+  public void write(String msg) {
+    publish(System.currentTimeMillis(), msg);
+  }
+
+  @Override
+  public synchronized void start() {
+    if (merger != null) {
+      return;
+    }
+    running = true;
+    merger = new Thread(this::mergeLoop, "audit-sl4j-merger");
+    merger.setDaemon(true);
+    merger.start();
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (merger == null) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(merger);
+    try {
+      merger.join(STOP_TIMEOUT_MS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (merger.isAlive()) {
+      log.warn("Audit writer did not merge {} queued records before stopping", queued());
+    }
+    merger = null;
+  }
+
+  int stripes() {
+    return stripes.length;
+  }
+
+  long dropped() {
+    long dropped = 0;
+    for (AuditRingBuffer<StripeSlot> stripe : stripes) {
+      dropped += stripe.dropped();
+    }
+    return dropped;
+  }
+
+  int queued() {
+    int queued = 0;
+    for (AuditRingBuffer<StripeSlot> stripe : stripes) {
+      queued += stripe.size();
+    }
+    return queued;
+  }
+
+  long late() {
+    return late.get();
+  }
+
+  private void publish(long when, String msg) {
+    stripeOfCurrentThread()
+        .publish(
+            msg,
+            (slot, m) -> {
+              slot.record.reset().append(m);
+              slot.when = when;
+            });
+  }
+
+  private void publish(long when, AuditRecordBuffer record) {
+    stripeOfCurrentThread()
+        .publish(
+            record,
+            (slot, r) -> {
+              slot.record.reset().append(r);
+              slot.when = when;
+            });
+  }
+
+  private AuditRingBuffer<StripeSlot> stripeOfCurrentThread() {
+    long id = Thread.currentThread().getId();
+    return stripes[(int) (id ^ (id >>> 16)) & stripeMask];
+  }
+
+  private void mergeLoop() {
+    while (running || queued() > 0) {
+      int collected = collect();
+      long watermark = running ? System.currentTimeMillis() - mergeWindowMs : Long.MAX_VALUE;
+      int written = writeUpTo(watermark);
+      if (collected == 0 && written == 0) {
+        reportDropped();
+        if (running) {
+          LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+        }
+      }
+    }
+    writeUpTo(Long.MAX_VALUE);
+    reportDropped();
+  }
+
+  private int collect() {
+    int collected = 0;
+    for (int i = 0; i < stripes.length; i++) {
+      int stripe = i;
+      collected +=
+          stripes[i].drain(
+              Integer.MAX_VALUE,
+              slot -> {
+                PendingRecord pendingRecord = free.isEmpty() ? new PendingRecord() : free.poll();
+                if (pendingRecord.record == null) {
+                  pendingRecord.record = new AuditRecordBuffer(slot.record.length());
+                }
+                pendingRecord.record.reset().append(slot.record);
+                pendingRecord.when = slot.when;
+                pendingRecord.seq = stripeSeqs[stripe]++;
+                pendingRecord.stripe = stripe;
+                pending.add(pendingRecord);
+                if (slot.record.capacity() > MAX_RETAINED_SLOT) {
+                  slot.record.trimTo(AuditRecordBuffer.DEFAULT_CAPACITY);
+                }
+              });
+    }
+    return collected;
+  }
+
+  private int writeUpTo(long watermark) {
+    int written = 0;
+    while (!pending.isEmpty() && pending.peek().when <= watermark) {
+      PendingRecord next = pending.poll();
+      if (next.when < lastWrittenWhen) {
+        late.incrementAndGet();
+      } else {
+        lastWrittenWhen = next.when;
+      }
+      writeToSink(next.record);
+      if (next.record.capacity() > MAX_RETAINED_SLOT) {
+        next.record = null;
+      }
+      free.push(next);
+      written++;
+    }
+    if (written > 0) {
+      flushSink();
+    }
+    return written;
+  }
+
+  private void writeToSink(AuditRecordBuffer record) {
+    try {
+      if (byteSink != null) {
+        byteSink.write(record);
+      } else {
+        sink.write(record.toString());
+      }
+    } catch (RuntimeException e) {
+      log.error("Unable to write audit record", e);
+    }
+  }
+
+  private void flushSink() {
+    try {
+      sink.flush();
+    } catch (RuntimeException e) {
+      log.error("Unable to flush audit records", e);
+    }
+  }
+
+  private void reportDropped() {
+    long dropped = dropped();
+    if (dropped > reportedDropped) {
+      log.warn(
+          "Dropped {} audit records because the queue of their stripe was full ({} in total)",
+          dropped - reportedDropped,
+          dropped);
+      reportedDropped = dropped;
+    }
+  }
+}
@@ -0,0 +1,436 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gerrit.extensions.events.LifecycleListener;
+import com.google.gerrit.metrics.Timer0;
+import com.google.gerrit.server.AuditEvent;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the audit records to a local syslog collector as RFC 5424 messages, over UDP or a unix
+ * domain stream socket.
+ *
+ * <p>Records are framed into a preallocated buffer and sent through a non-blocking channel by a
+ * background thread, woken up when the writer is flushed, so that all the records appended in the
+ * meantime go out in a single write on stream sockets, where each message is prefixed by its length
+ * (RFC 6587 octet counting). Over UDP, each record is sent in its own datagram (RFC 5426). Records
+ * that the collector cannot accept stay in the buffer and are retried later; new records are
+ * dropped while the buffer is full. When the connection is lost in the middle of a message, the
+ * rest of the message is dropped, so that the next connection starts at a message boundary.
+ */
+@Singleton
+public class AuditWriterToSyslog implements AuditByteWriter, LifecycleListener {
+  private static final Logger log = LoggerFactory.getLogger(AuditWriterToSyslog.class);
+
+  static final String DEFAULT_ADDRESS = "udp://localhost:514";
+  private static final int DEFAULT_UDP_PORT = 514;
+  private static final int MAX_DATAGRAM = 65507;
+  private static final int SEVERITY_INFO = 6;
+  private static final String MSG_ID = "audit";
+  private static final long RETRY_INTERVAL_MS = 1000;
+  private static final DateTimeFormatter SECONDS_FORMAT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss").withZone(ZoneOffset.UTC);
+
+  enum Facility {
+    USER(1),
+    AUTH(4),
+    AUTHPRIV(10),
+    LOCAL0(16),
+    LOCAL1(17),
+    LOCAL2(18),
+    LOCAL3(19),
+    LOCAL4(20),
+    LOCAL5(21),
+    LOCAL6(22),
+    LOCAL7(23);
+
+    private final int code;
+
+    Facility(int code) {
+      this.code = code;
+    }
+  }
+
+  private final SocketAddress address;
+  private final boolean datagram;
+  private final byte[] priority;
+  private final byte[] headerSuffix;
+  private final LongSupplier clock;
+  private final ByteBuffer pending;
+  private final Timer0 writeLatency;
+
+  private final AtomicBoolean sendScheduled = new AtomicBoolean();
+
+  private ByteChannel channel;
+  private int partialFrame;
+  private long lastConnectMs = -RETRY_INTERVAL_MS;
+  private boolean failing;
+  private long cachedSecond = Long.MIN_VALUE;
+  private byte[] cachedTimestamp;
+  private long dropped;
+  private long reportedDropped;
+  private volatile ScheduledExecutorService sender;
+
+  @Inject
+  public AuditWriterToSyslog(AuditConfig config, AuditMetrics metrics) {
+    this(
+        parseAddress(config.getSyslogAddress()),
+        config.getSyslogFacility(),
+        localHostName(),
+        config.getSyslogAppName(),
+        config.getSyslogBufferSize(),
+        System::currentTimeMillis,
+        metrics);
+  }
+
+  AuditWriterToSyslog(
+      SocketAddress address,
+      Facility facility,
+      String hostName,
+      String appName,
+      int bufferSize,
+      LongSupplier clock,
+      AuditMetrics metrics) {
+    this.address = address;
+    this.datagram = address instanceof InetSocketAddress;
+    this.priority = ("<" + (facility.code * 8 + SEVERITY_INFO) + ">1 ").getBytes(US_ASCII);
+    this.headerSuffix =
+        String.format(" %s %s %d %s - ", hostName, appName, ProcessHandle.current().pid(), MSG_ID)
+            .getBytes(US_ASCII);
+    this.clock = clock;
+    this.pending = ByteBuffer.allocateDirect(bufferSize);
+    this.writeLatency = metrics.newWriteTimer("syslog");
+    metrics.registerBacklogBytes("syslog", this::pendingBytes);
+    metrics.registerDropped("syslog", this::dropped);
+  }
+
+  /** Parses {@code udp://host[:port]} or {@code unix:/path/to/socket}. */
+  static SocketAddress parseAddress(String address) {
+    URI uri = URI.create(address);
+    if ("udp".equalsIgnoreCase(uri.getScheme()) && uri.getHost() != null) {
+      return new InetSocketAddress(
+          uri.getHost(), uri.getPort() < 0 ? DEFAULT_UDP_PORT : uri.getPort());
+    }
+    if ("unix".equalsIgnoreCase(uri.getScheme()) && uri.getPath() != null) {
+      return UnixDomainSocketAddress.of(uri.getPath());
+    }
+    throw new IllegalArgumentException("Unsupported syslog address '" + address + "'");
+  }
+
+  @Override
+  public void write(AuditRecordBuffer record) {
+    append(clock.getAsLong(), record);
+  }
+
+  @Override
+  public void write(AuditEvent auditEvent, AuditRecordBuffer record) {
+    append(auditEvent.when, record);
+  }
+
+  /**
+   * Wakes up the sender thread to send the records appended so far, or sends them from the calling
+   * thread when the writer is not started.
+   */
+  @Override
+  public void flush() {
+    ScheduledExecutorService current = sender;
+    if (current == null) {
+      send();
+    } else if (sendScheduled.compareAndSet(false, true)) {
+      try {
+        current.execute(this::scheduledSend);
+      } catch (RejectedExecutionException e) {
+        sendScheduled.set(false);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    if (sender != null) {
+      return;
+    }
+    sender =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("audit-sl4j-syslog").setDaemon(true).build());
+    sender.scheduleWithFixedDelay(
+        this::retry, RETRY_INTERVAL_MS, RETRY_INTERVAL_MS, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void stop() {
+    ScheduledExecutorService current;
+    synchronized (this) {
+      current = sender;
+      sender = null;
+    }
+    if (current != null) {
+      current.shutdownNow();
+      try {
+        current.awaitTermination(RETRY_INTERVAL_MS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    synchronized (this) {
+      send();
+      if (pending.position() > 0) {
+        log.warn(
+            "Unable to send {} bytes of audit records to syslog {}", pending.position(), address);
+      }
+      disconnect();
+    }
+  }
+
+  synchronized long dropped() {
+    return dropped;
+  }
+
+  synchronized long pendingBytes() {
+    return pending.position();
+  }
+
+  private synchronized void append(long when, AuditRecordBuffer record) {
+    ByteBuffer msg = record.asByteBuffer();
+    byte[] timestamp = timestamp(when);
+    int length = priority.length + timestamp.length + headerSuffix.length + msg.remaining();
+    byte[] frame = datagram ? null : (length + " ").getBytes(US_ASCII);
+    int frameLength = datagram ? 4 : frame.length;
+    if (datagram && length > MAX_DATAGRAM) {
+      dropped++;
+      return;
+    }
+    if (pending.remaining() < frameLength + length) {
+      flush();
+      if (pending.remaining() < frameLength + length) {
+        dropped++;
+        return;
+      }
+    }
+    if (datagram) {
+      // Kept in the buffer until sent, each datagram is prefixed by its binary length.
+      pending.putInt(length);
+    } else {
+      pending.put(frame);
+    }
+    pending.put(priority).put(timestamp).put(headerSuffix).put(msg);
+  }
+
+  private void scheduledSend() {
+    sendScheduled.set(false);
+    send();
+  }
+
+  private synchronized void send() {
+    if (pending.position() == 0) {
+      return;
+    }
+    if (channel == null && !connect()) {
+      return;
+    }
+    boolean lost = false;
+    pending.flip();
+    long start = System.nanoTime();
+    try {
+      if (datagram) {
+        sendDatagrams();
+        recovered();
+      } else if (((SocketChannel) channel).finishConnect()) {
+        sendFrames();
+        recovered();
+      }
+    } catch (IOException e) {
+      failed("Unable to send audit records to syslog {}", e);
+      lost = true;
+    } finally {
+      writeLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      pending.compact();
+    }
+    if (lost) {
+      disconnect();
+    }
+  }
+
+  private void sendFrames() throws IOException {
+    int start = pending.position();
+    try {
+      channel.write(pending);
+    } finally {
+      partialFrame = unsentOfLastFrame(start, pending.position());
+    }
+  }
+
+  /**
+   * Returns how many bytes of the octet-counted frame sent up to {@code end} are still to be sent,
+   * the frame at {@code start} having {@link #partialFrame} bytes still to be sent.
+   */
+  private int unsentOfLastFrame(int start, int end) {
+    int frame = start + partialFrame;
+    while (frame < end) {
+      int length = 0;
+      int digit = frame;
+      for (byte b = pending.get(digit); b != ' '; b = pending.get(++digit)) {
+        length = length * 10 + (b - '0');
+      }
+      frame = digit + 1 + length;
+    }
+    return frame - end;
+  }
+
+  private void sendDatagrams() throws IOException {
+    while (pending.hasRemaining()) {
+      int start = pending.position();
+      int end = start + 4 + pending.getInt(start);
+      int limit = pending.limit();
+      pending.position(start + 4).limit(end);
+      try {
+        if (channel.write(pending) == 0) {
+          pending.position(start);
+          return;
+        }
+      } catch (IOException e) {
+        // Datagrams are not retried: the collector is not listening or rejected this one.
+        pending.position(end);
+        dropped++;
+        throw e;
+      } finally {
+        pending.limit(limit);
+      }
+      pending.position(end);
+    }
+  }
+
+  private byte[] timestamp(long when) {
+    long second = Math.floorDiv(when, 1000);
+    if (second != cachedSecond) {
+      cachedSecond = second;
+      cachedTimestamp =
+          (SECONDS_FORMAT.format(Instant.ofEpochSecond(second)) + ".000Z").getBytes(US_ASCII);
+    }
+    int millis = (int) Math.floorMod(when, 1000);
+    int offset = cachedTimestamp.length - 4;
+    cachedTimestamp[offset] = (byte) ('0' + millis / 100);
+    cachedTimestamp[offset + 1] = (byte) ('0' + millis / 10 % 10);
+    cachedTimestamp[offset + 2] = (byte) ('0' + millis % 10);
+    return cachedTimestamp;
+  }
+
+  private boolean connect() {
+    long now = clock.getAsLong();
+    if (now - lastConnectMs < RETRY_INTERVAL_MS) {
+      return false;
+    }
+    lastConnectMs = now;
+    try {
+      if (datagram) {
+        DatagramChannel datagramChannel = DatagramChannel.open();
+        datagramChannel.configureBlocking(false);
+        datagramChannel.connect(address);
+        channel = datagramChannel;
+      } else {
+        SocketChannel socketChannel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        socketChannel.configureBlocking(false);
+        // Completed by finishConnect() before sending, if the collector cannot accept it at once.
+        socketChannel.connect(address);
+        channel = socketChannel;
+      }
+      return true;
+    } catch (IOException e) {
+      failed("Unable to connect to syslog {}", e);
+      return false;
+    }
+  }
+
+  private void failed(String message, IOException e) {
+    if (!failing) {
+      failing = true;
+      log.error(message, address, e);
+    }
+  }
+
+  private void recovered() {
+    if (failing) {
+      failing = false;
+      log.info("Sending audit records to syslog {} again", address);
+    }
+  }
+
+  private void disconnect() {
+    if (channel == null) {
+      return;
+    }
+    if (partialFrame > 0) {
+      // The collector discards the incomplete message with the connection.
+      pending.flip().position(partialFrame);
+      pending.compact();
+      partialFrame = 0;
+      dropped++;
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      log.warn("Unable to close the connection to syslog {}", address, e);
+    }
+    channel = null;
+  }
+
+  private synchronized void retry() {
+    send();
+    if (dropped > reportedDropped) {
+      log.warn(
+          "Dropped {} audit records because syslog {} could not keep up ({} in total)",
+          dropped - reportedDropped,
+          address,
+          dropped);
+      reportedDropped = dropped;
+    }
+  }
+
+  private static String localHostName() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      return "-";
+    }
+  }
+}
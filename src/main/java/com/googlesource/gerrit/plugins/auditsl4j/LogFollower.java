@@ -0,0 +1,154 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads the lines appended to a log file since the last poll, like {@code tail -F}.
+ *
+ * <p>The file stays open between polls. When the log is rotated, which is detected by a different
+ * file key at its path, the rest of the rotated file is read through the open channel, including a
+ * last line without end, before switching to the new file from its start. A file shorter than the
+ * position read so far is read again from its start, as it has been truncated. Only complete lines
+ * are returned: a partial last line is kept until its end is written.
+ */
+class LogFollower implements Closeable {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path file;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+  private final ByteArrayOutputStream partialLine = new ByteArrayOutputStream();
+
+  private FileChannel channel;
+  private Object fileKey;
+  private boolean fromStart;
+
+  /**
+   * @param file log file to follow.
+   * @param fromStart whether to read the lines already in the log when it is first opened, rather
+   *     than starting from its end.
+   */
+  LogFollower(Path file, boolean fromStart) {
+    this.file = file;
+    this.fromStart = fromStart;
+  }
+
+  /** Returns the complete lines appended to the log since the last poll. */
+  List<String> poll() throws IOException {
+    List<String> lines = new ArrayList<>();
+    if (channel == null && !open()) {
+      return lines;
+    }
+    if (channel.size() < channel.position()) {
+      channel.position(0);
+      partialLine.reset();
+    }
+    read(lines);
+    if (isRotated()) {
+      // Lines appended after the read above and before the rotation are still in the old file
+      read(lines);
+      if (partialLine.size() > 0) {
+        // Nothing is appended to a rotated log anymore: its last line is complete
+        lines.add(lineOf(partialLine));
+        partialLine.reset();
+      }
+      close();
+      if (open()) {
+        read(lines);
+      }
+    }
+    return lines;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+      channel = null;
+      fileKey = null;
+    }
+  }
+
+  private boolean open() throws IOException {
+    try {
+      channel = FileChannel.open(file, StandardOpenOption.READ);
+    } catch (NoSuchFileException e) {
+      // Logs created after the first poll only have new lines
+      fromStart = true;
+      return false;
+    }
+    fileKey = fileKeyOf(file);
+    if (!fromStart) {
+      channel.position(channel.size());
+    }
+    // Rotated logs are always read from their start
+    fromStart = true;
+    return true;
+  }
+
+  private boolean isRotated() throws IOException {
+    Object currentKey = fileKeyOf(file);
+    return currentKey == null ? !Files.exists(file) : !Objects.equals(currentKey, fileKey);
+  }
+
+  private static Object fileKeyOf(Path file) throws IOException {
+    try {
+      return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  private void read(List<String> lines) throws IOException {
+    while (true) {
+      buffer.clear();
+      if (channel.read(buffer) <= 0) {
+        return;
+      }
+      buffer.flip();
+      byte[] bytes = buffer.array();
+      int lineStart = 0;
+      for (int i = 0; i < buffer.limit(); i++) {
+        if (bytes[i] == '\n') {
+          partialLine.write(bytes, lineStart, i - lineStart);
+          lines.add(lineOf(partialLine));
+          partialLine.reset();
+          lineStart = i + 1;
+        }
+      }
+      partialLine.write(bytes, lineStart, buffer.limit() - lineStart);
+    }
+  }
+
+  private static String lineOf(ByteArrayOutputStream bytes) throws IOException {
+    String line = bytes.toString(UTF_8.name());
+    return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+  }
+}
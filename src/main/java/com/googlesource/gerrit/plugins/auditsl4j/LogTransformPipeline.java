@@ -0,0 +1,404 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.util.concurrent.Futures;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Transforms the lines of a log into audit records in three overlapping stages: a reader thread
+ * decompresses the input and splits it into batches of lines, the batches are parsed and rendered
+ * by a shared pool of workers, and the calling thread writes the rendered batches in input order.
+ *
+ * <p>Uncompressed logs are memory-mapped instead: the reader thread only splits the mapped file
+ * into chunks at line boundaries, and the workers parse the lines straight from the mapped bytes.
+ *
+ * <p>At most {@code maxPendingBatches} batches are read ahead of the one being written, which
+ * bounds the memory used by a transformation regardless of the size of the log.
+ */
+class LogTransformPipeline {
+  static final int DEFAULT_BATCH_SIZE = 1024;
+  static final int DEFAULT_CHUNK_BYTES = 256 * 1024;
+  private static final long MAX_REGION_BYTES = 256L * 1024 * 1024;
+
+  /** Notified by the writing thread after each batch of lines has been written. */
+  interface Listener {
+    /** @param lines number of input lines whose audit records have been written so far. */
+    void written(long lines) throws IOException;
+  }
+
+  /** Audit records rendered from one batch of lines, separated by new lines. */
+  private static class Chunk {
+    final String text;
+    final int lines;
+    final int records;
+    final long inputEnd;
+
+    Chunk(String text, int lines, int records, long inputEnd) {
+      this.text = text;
+      this.lines = lines;
+      this.records = records;
+      this.inputEnd = inputEnd;
+    }
+  }
+
+  private static final Future<Chunk> END = Futures.immediateFuture(null);
+
+  /** Splits the input into batches, submitted in order to the workers. */
+  private interface BatchReader {
+    void read(BlockingQueue<Future<Chunk>> pending) throws IOException, InterruptedException;
+  }
+
+  private final ExecutorService workers;
+  private final int batchSize;
+  private final int maxPendingBatches;
+
+  private long linesRead;
+  private long recordsWritten;
+  private long charsWritten;
+  private long inputPosition;
+
+  /**
+   * @param workers pool parsing and rendering the batches.
+   * @param batchSize number of lines of a batch, or of bytes of a chunk of a mapped log.
+   * @param maxPendingBatches number of batches read ahead of the one being written.
+   */
+  LogTransformPipeline(ExecutorService workers, int batchSize, int maxPendingBatches) {
+    this.workers = workers;
+    this.batchSize = batchSize;
+    this.maxPendingBatches = maxPendingBatches;
+  }
+
+  /** Writes to {@code output} the audit records transformed from each line of {@code input}. */
+  void run(BufferedReader input, Function<String, Optional<String>> transform, Writer output)
+      throws IOException, InterruptedException {
+    run(input, transform, output, lines -> {});
+  }
+
+  /**
+   * Writes to {@code output} the audit records transformed from each line of {@code input},
+   * notifying {@code listener} after each batch.
+   */
+  void run(
+      BufferedReader input,
+      Function<String, Optional<String>> transform,
+      Writer output,
+      Listener listener)
+      throws IOException, InterruptedException {
+    run(pending -> readLines(input, transform, pending), output, listener);
+  }
+
+  /**
+   * Writes to {@code output} the audit records transformed from each line of the uncompressed log
+   * {@code input} after its first {@code skipLines}, notifying {@code listener} after each chunk.
+   *
+   * <p>Lines made of ASCII characters only, as HTTP and SSH logs are, are handed to {@code
+   * transform} as views of the mapped bytes, which must not be retained. Other lines are decoded
+   * as UTF-8.
+   */
+  void run(
+      FileChannel input,
+      long skipLines,
+      Function<CharSequence, Optional<String>> transform,
+      Writer output,
+      Listener listener)
+      throws IOException, InterruptedException {
+    run(pending -> readChunks(input, skipLines, transform, pending), output, listener);
+  }
+
+  /** Number of input lines whose audit records have been written. */
+  long linesRead() {
+    return linesRead;
+  }
+
+  long recordsWritten() {
+    return recordsWritten;
+  }
+
+  long charsWritten() {
+    return charsWritten;
+  }
+
+  /** Offset in a mapped log after the last line whose audit records have been written. */
+  long inputPosition() {
+    return inputPosition;
+  }
+
+  private void run(BatchReader batchReader, Writer output, Listener listener)
+      throws IOException, InterruptedException {
+    BlockingQueue<Future<Chunk>> pending = new ArrayBlockingQueue<>(maxPendingBatches);
+    Thread reader = new Thread(() -> read(batchReader, pending), "audit-sl4j-transform-reader");
+    reader.setDaemon(true);
+    reader.start();
+    try {
+      for (Future<Chunk> next = pending.take(); next != END; next = pending.take()) {
+        Chunk chunk = getChunk(next);
+        output.write(chunk.text);
+        linesRead += chunk.lines;
+        recordsWritten += chunk.records;
+        charsWritten += chunk.text.length();
+        if (chunk.inputEnd >= 0) {
+          inputPosition = chunk.inputEnd;
+        }
+        listener.written(linesRead);
+      }
+    } finally {
+      reader.interrupt();
+      reader.join();
+      for (Future<Chunk> batch : pending) {
+        batch.cancel(true);
+      }
+    }
+  }
+
+  private static void read(BatchReader batchReader, BlockingQueue<Future<Chunk>> pending) {
+    try {
+      batchReader.read(pending);
+      pending.put(END);
+    } catch (IOException | RuntimeException e) {
+      try {
+        pending.put(Futures.immediateFailedFuture(e));
+      } catch (InterruptedException ie) {
+        // The writer gave up already
+      }
+    } catch (InterruptedException e) {
+      // The writer gave up, stop reading
+    }
+  }
+
+  private void readLines(
+      BufferedReader input,
+      Function<String, Optional<String>> transform,
+      BlockingQueue<Future<Chunk>> pending)
+      throws IOException, InterruptedException {
+    List<String> batch = new ArrayList<>(batchSize);
+    String line;
+    while ((line = input.readLine()) != null) {
+      batch.add(line);
+      if (batch.size() == batchSize) {
+        pending.put(submit(batch, transform));
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+    if (!batch.isEmpty()) {
+      pending.put(submit(batch, transform));
+    }
+  }
+
+  private Future<Chunk> submit(List<String> lines, Function<String, Optional<String>> transform) {
+    return workers.submit(
+        () -> {
+          StringBuilder text = new StringBuilder();
+          int records = 0;
+          for (String line : lines) {
+            records += append(text, transform.apply(line));
+          }
+          return new Chunk(text.toString(), lines.size(), records, -1);
+        });
+  }
+
+  /**
+   * Maps {@code input} region by region, each one ending at a line boundary, and submits chunks of
+   * about {@code batchSize} bytes of complete lines.
+   */
+  private void readChunks(
+      FileChannel input,
+      long skipLines,
+      Function<CharSequence, Optional<String>> transform,
+      BlockingQueue<Future<Chunk>> pending)
+      throws IOException, InterruptedException {
+    long size = input.size();
+    long position = 0;
+    long toSkip = skipLines;
+    while (position < size) {
+      long regionLength = Math.min(size - position, MAX_REGION_BYTES);
+      MappedByteBuffer region = input.map(FileChannel.MapMode.READ_ONLY, position, regionLength);
+      int regionEnd = (int) regionLength;
+      if (position + regionLength < size) {
+        regionEnd = lastLineEnd(region);
+        if (regionEnd == 0) {
+          throw new IOException(
+              "Line longer than " + MAX_REGION_BYTES + " bytes at offset " + position);
+        }
+      }
+      int start = 0;
+      for (; toSkip > 0 && start < regionEnd; toSkip--) {
+        start = nextLineEnd(region, start, regionEnd);
+      }
+      while (start < regionEnd) {
+        int end = nextLineEnd(region, Math.min(start + batchSize, regionEnd) - 1, regionEnd);
+        ByteBuffer chunk = region.duplicate();
+        chunk.position(start).limit(end);
+        pending.put(submit(chunk.slice(), position + end, transform));
+        start = end;
+      }
+      position += regionEnd;
+    }
+    if (toSkip > 0) {
+      throw new IOException("Log has " + (skipLines - toSkip) + " lines, expected " + skipLines);
+    }
+  }
+
+  private Future<Chunk> submit(
+      ByteBuffer bytes, long inputEnd, Function<CharSequence, Optional<String>> transform) {
+    return workers.submit(
+        () -> {
+          StringBuilder text = new StringBuilder();
+          AsciiLine view = new AsciiLine(bytes);
+          int lines = 0;
+          int records = 0;
+          for (int start = 0; start < bytes.limit(); lines++) {
+            int end = nextLineEnd(bytes, start, bytes.limit());
+            int lineEnd = end;
+            if (lineEnd > start && bytes.get(lineEnd - 1) == '\n') {
+              lineEnd--;
+            }
+            if (lineEnd > start && bytes.get(lineEnd - 1) == '\r') {
+              lineEnd--;
+            }
+            CharSequence line =
+                view.isAscii(start, lineEnd)
+                    ? view.of(start, lineEnd)
+                    : view.decode(start, lineEnd);
+            records += append(text, transform.apply(line));
+            start = end;
+          }
+          return new Chunk(text.toString(), lines, records, inputEnd);
+        });
+  }
+
+  private static int append(StringBuilder text, Optional<String> record) {
+    if (!record.isPresent()) {
+      return 0;
+    }
+    text.append(record.get()).append('\n');
+    return 1;
+  }
+
+  /** Index after the first new line at or after {@code from}, or {@code limit}. */
+  private static int nextLineEnd(ByteBuffer bytes, int from, int limit) {
+    for (int i = from; i < limit; i++) {
+      if (bytes.get(i) == '\n') {
+        return i + 1;
+      }
+    }
+    return limit;
+  }
+
+  /** Index after the last new line of {@code bytes}, or 0. */
+  private static int lastLineEnd(ByteBuffer bytes) {
+    for (int i = bytes.limit() - 1; i >= 0; i--) {
+      if (bytes.get(i) == '\n') {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  private static Chunk getChunk(Future<Chunk> batch) throws IOException, InterruptedException {
+    try {
+      return batch.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /** A line of ASCII characters read in place from a buffer of bytes. */
+  private static class AsciiLine implements CharSequence {
+    private final ByteBuffer bytes;
+    private int offset;
+    private int length;
+
+    AsciiLine(ByteBuffer bytes) {
+      this.bytes = bytes;
+    }
+
+    boolean isAscii(int start, int end) {
+      for (int i = start; i < end; i++) {
+        if (bytes.get(i) < 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    AsciiLine of(int start, int end) {
+      offset = start;
+      length = end - start;
+      return this;
+    }
+
+    String decode(int start, int end) {
+      return new String(copy(start, end), UTF_8);
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length) {
+        throw new IndexOutOfBoundsException(Integer.toString(index));
+      }
+      return (char) bytes.get(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      if (start < 0 || end > length || start > end) {
+        throw new IndexOutOfBoundsException(start + ".." + end);
+      }
+      return new String(copy(offset + start, offset + end), US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+      return new String(copy(offset, offset + length), US_ASCII);
+    }
+
+    private byte[] copy(int start, int end) {
+      byte[] copy = new byte[end - start];
+      ByteBuffer source = bytes.duplicate();
+      source.position(start);
+      source.get(copy);
+      return copy;
+    }
+  }
+}
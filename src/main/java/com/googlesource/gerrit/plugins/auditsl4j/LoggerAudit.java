@@ -14,30 +14,72 @@
 
 package com.googlesource.gerrit.plugins.auditsl4j;
 
+import com.google.common.base.Utf8;
 import com.google.gerrit.server.AuditEvent;
 import com.google.gerrit.server.audit.AuditListener;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import java.util.Optional;
 
 @Singleton
 public class LoggerAudit implements AuditListener {
+  private static final int MAX_RETAINED_RECORD = 64 * 1024;
+
   private final AuditWriter auditWriter;
   private final AuditFormatRenderer auditRenderer;
+  private final AuditMetrics metrics;
+  private final ThreadLocal<AuditRecordBuffer> records =
+      ThreadLocal.withInitial(AuditRecordBuffer::new);
 
   public static final String AUDIT_LOGGER_NAME = LoggerAudit.class.getName();
 
-  @Inject
   public LoggerAudit(AuditWriter auditWriter, AuditFormatRenderer auditRenderer) {
+    this(auditWriter, auditRenderer, AuditMetrics.DISABLED);
+  }
+
+  @Inject
+  public LoggerAudit(
+      AuditWriter auditWriter, AuditFormatRenderer auditRenderer, AuditMetrics metrics) {
     this.auditWriter = auditWriter;
     this.auditRenderer = auditRenderer;
+    this.metrics = metrics;
 
     auditRenderer.headers().ifPresent(auditWriter::write);
   }
 
   @Override
   public void onAuditableAction(AuditEvent auditEvent) {
+    if (auditWriter instanceof AuditByteWriter) {
+      writeRecord((AuditByteWriter) auditWriter, auditEvent);
+      return;
+    }
+
+    String type = AuditMetrics.typeOf(auditEvent);
+    long start = System.nanoTime();
     String auditString = getAuditString(auditEvent);
-    auditWriter.write(auditString);
+    long rendered = System.nanoTime();
+    metrics.recordRender(type, rendered - start);
+    auditWriter.write(auditEvent, auditString);
+    auditWriter.flush();
+    metrics.recordHandoff(type, System.nanoTime() - rendered, Utf8.encodedLength(auditString));
+  }
+
+  private void writeRecord(AuditByteWriter byteWriter, AuditEvent auditEvent) {
+    AuditRecordBuffer record = records.get().reset();
+    try {
+      String type = AuditMetrics.typeOf(auditEvent);
+      long start = System.nanoTime();
+      auditRenderer.render(auditEvent, record);
+      long rendered = System.nanoTime();
+      metrics.recordRender(type, rendered - start);
+      byteWriter.write(auditEvent, record);
+      byteWriter.flush();
+      metrics.recordHandoff(type, System.nanoTime() - rendered, record.length());
+    } finally {
+      if (record.capacity() > MAX_RETAINED_RECORD) {
+        records.remove();
+      }
+    }
   }
 
   public String getAuditString(AuditEvent auditEvent) {
@@ -47,4 +89,8 @@ public class LoggerAudit implements AuditListener {
   public String getAuditString(AuditEvent auditEvent, TransformableAuditLogType type) {
     return auditRenderer.render(auditEvent, type);
   }
+
+  public Optional<String> getEventKey(String auditString) {
+    return auditRenderer.eventKey(auditString);
+  }
 }
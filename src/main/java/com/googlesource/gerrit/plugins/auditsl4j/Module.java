@@ -14,12 +14,15 @@
 
 package com.googlesource.gerrit.plugins.auditsl4j;
 
+import com.google.gerrit.extensions.events.LifecycleListener;
 import com.google.gerrit.extensions.registration.DynamicSet;
+import com.google.gerrit.lifecycle.LifecycleModule;
 import com.google.gerrit.server.audit.AuditListener;
-import com.google.inject.AbstractModule;
 import com.google.inject.Inject;
+import com.google.inject.multibindings.MapBinder;
+import java.util.List;
 
-public class Module extends AbstractModule {
+public class Module extends LifecycleModule {
   private final AuditConfig config;
 
   @Inject
@@ -29,7 +32,12 @@ public class Module extends AbstractModule {
 
   @Override
   protected void configure() {
-    DynamicSet.bind(binder(), AuditListener.class).to(LoggerAudit.class);
+    if (config.getRenderWorkers() > 0) {
+      DynamicSet.bind(binder(), AuditListener.class).to(AsyncLoggerAudit.class);
+      listener().to(AsyncLoggerAudit.class);
+    } else {
+      DynamicSet.bind(binder(), AuditListener.class).to(LoggerAudit.class);
+    }
 
     AuditFormatTypes rendererType = config.getFormat();
     switch (rendererType) {
@@ -39,12 +47,65 @@ public class Module extends AbstractModule {
       case JSON:
         bind(AuditFormatRenderer.class).to(AuditRendererToJson.class);
         break;
+      case JSON_STREAM:
+        bind(AuditFormatRenderer.class).to(AuditRendererToJsonStream.class);
+        break;
       default:
         throw new IllegalArgumentException("Unsupported renderer '" + rendererType + "'");
     }
 
-    if (config.getLogName().isPresent()) {
-      bind(AuditWriter.class).to(AuditWriterToAsyncAppender.class);
+    List<AuditWriterTypes> writerTypes = config.getWriters();
+    for (AuditWriterTypes writerType : writerTypes) {
+      Class<? extends AuditWriter> writerClass = writerClass(writerType);
+      if (LifecycleListener.class.isAssignableFrom(writerClass)) {
+        listener().to(writerClass.asSubclass(LifecycleListener.class));
+      }
+    }
+
+    Class<? extends AuditWriter> sinkClass;
+    if (writerTypes.size() > 1) {
+      MapBinder<AuditWriterTypes, AuditWriter> sinks =
+          MapBinder.newMapBinder(binder(), AuditWriterTypes.class, AuditWriter.class);
+      for (AuditWriterTypes writerType : writerTypes) {
+        sinks.addBinding(writerType).to(writerClass(writerType));
+      }
+      listener().to(AuditWriterToFanOut.class);
+      sinkClass = AuditWriterToFanOut.class;
+    } else {
+      sinkClass = writerClass(writerTypes.get(0));
+    }
+
+    if (config.getStripes() > 0) {
+      bind(AuditWriter.class).annotatedWith(AuditSink.class).to(sinkClass);
+      bind(AuditWriter.class).to(AuditWriterToStripes.class);
+      listener().to(AuditWriterToStripes.class);
+    } else if (config.getRingBufferSize() > 0) {
+      bind(AuditWriter.class).annotatedWith(AuditSink.class).to(sinkClass);
+      bind(AuditWriter.class).to(AuditWriterToRingBuffer.class);
+      listener().to(AuditWriterToRingBuffer.class);
+    } else {
+      bind(AuditWriter.class).to(sinkClass);
+    }
+
+    if (config.isCompressEnabled()) {
+      listener().to(AuditLogCompressor.class);
+    }
+  }
+
+  private static Class<? extends AuditWriter> writerClass(AuditWriterTypes writerType) {
+    switch (writerType) {
+      case LOGGER:
+        return AuditWriterToLogger.class;
+      case ASYNC_APPENDER:
+        return AuditWriterToAsyncAppender.class;
+      case FILE:
+        return AuditWriterToFile.class;
+      case MMAP:
+        return AuditWriterToMappedSegments.class;
+      case SYSLOG:
+        return AuditWriterToSyslog.class;
+      default:
+        throw new IllegalArgumentException("Unsupported writer '" + writerType + "'");
     }
   }
 }
@@ -0,0 +1,165 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.function.LongSupplier;
+
+/**
+ * Progress of the transformation of the logs of one day, stored next to its audit log as {@code
+ * audit_log.<date>.log.checkpoint} so that an interrupted transformation can be resumed.
+ *
+ * <p>For each type of log, the checkpoint records how many lines of the input have been written to
+ * its part file and the length of the part file at that point, then whether the part file has been
+ * appended to the audit log. The length of the audit log after the last complete append is
+ * recorded as well, so that an interrupted append can be rolled back.
+ */
+class TransformCheckpoint {
+  static final String SUFFIX = ".checkpoint";
+  private static final String TMP_SUFFIX = ".tmp";
+  private static final long SAVE_INTERVAL_MS = 1000;
+
+  private static final String COMPLETE = "complete";
+  private static final String OUTPUT_LENGTH = "output.length";
+  private static final String LINES = ".lines";
+  private static final String PART_LENGTH = ".partLength";
+  private static final String TRANSFORMED = ".transformed";
+  private static final String APPENDED = ".appended";
+
+  private final Path file;
+  private final LongSupplier clock;
+  private final Properties properties = new Properties();
+  private long lastSaveMs;
+
+  static TransformCheckpoint load(Path auditLog) throws IOException {
+    return load(auditLog, System::currentTimeMillis);
+  }
+
+  static TransformCheckpoint load(Path auditLog, LongSupplier clock) throws IOException {
+    TransformCheckpoint checkpoint =
+        new TransformCheckpoint(auditLog.resolveSibling(auditLog.getFileName() + SUFFIX), clock);
+    if (Files.exists(checkpoint.file)) {
+      try (Reader in = Files.newBufferedReader(checkpoint.file, UTF_8)) {
+        checkpoint.properties.load(in);
+      }
+    }
+    return checkpoint;
+  }
+
+  private TransformCheckpoint(Path file, LongSupplier clock) {
+    this.file = file;
+    this.clock = clock;
+  }
+
+  synchronized boolean isComplete() {
+    return getBoolean(COMPLETE);
+  }
+
+  synchronized void setComplete() throws IOException {
+    properties.setProperty(COMPLETE, "true");
+    save();
+  }
+
+  synchronized OptionalLong outputLength() {
+    return properties.containsKey(OUTPUT_LENGTH)
+        ? OptionalLong.of(getLong(OUTPUT_LENGTH))
+        : OptionalLong.empty();
+  }
+
+  synchronized void setOutputLength(long length) throws IOException {
+    properties.setProperty(OUTPUT_LENGTH, Long.toString(length));
+    save();
+  }
+
+  /** Number of input lines of {@code fileType} whose audit records are in its part file. */
+  synchronized long lines(String fileType) {
+    return getLong(fileType + LINES);
+  }
+
+  synchronized long partLength(String fileType) {
+    return getLong(fileType + PART_LENGTH);
+  }
+
+  /**
+   * Records the progress of the transformation of {@code fileType}. The checkpoint is saved at
+   * most once per second: the progress of the part files only grows, so resuming from an older
+   * saved progress writes the same records again.
+   */
+  synchronized void setProgress(String fileType, long lines, long partLength) throws IOException {
+    properties.setProperty(fileType + LINES, Long.toString(lines));
+    properties.setProperty(fileType + PART_LENGTH, Long.toString(partLength));
+    if (clock.getAsLong() - lastSaveMs >= SAVE_INTERVAL_MS) {
+      save();
+    }
+  }
+
+  synchronized boolean isTransformed(String fileType) {
+    return getBoolean(fileType + TRANSFORMED);
+  }
+
+  synchronized void setTransformed(String fileType, long lines, long partLength)
+      throws IOException {
+    properties.setProperty(fileType + LINES, Long.toString(lines));
+    properties.setProperty(fileType + PART_LENGTH, Long.toString(partLength));
+    properties.setProperty(fileType + TRANSFORMED, "true");
+    save();
+  }
+
+  synchronized boolean isAppended(String fileType) {
+    return getBoolean(fileType + APPENDED);
+  }
+
+  synchronized void setAppended(String fileType, long outputLength) throws IOException {
+    setAppended(Collections.singleton(fileType), outputLength);
+  }
+
+  /** Records that the part files of {@code fileTypes} have been merged into the audit log. */
+  synchronized void setAppended(Collection<String> fileTypes, long outputLength)
+      throws IOException {
+    for (String fileType : fileTypes) {
+      properties.setProperty(fileType + APPENDED, "true");
+    }
+    properties.setProperty(OUTPUT_LENGTH, Long.toString(outputLength));
+    save();
+  }
+
+  private boolean getBoolean(String key) {
+    return Boolean.parseBoolean(properties.getProperty(key));
+  }
+
+  private long getLong(String key) {
+    return Long.parseLong(properties.getProperty(key, "0"));
+  }
+
+  private void save() throws IOException {
+    Path tmp = file.resolveSibling(file.getFileName() + TMP_SUFFIX);
+    try (Writer out = Files.newBufferedWriter(tmp, UTF_8)) {
+      properties.store(out, null);
+    }
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    lastSaveMs = clock.getAsLong();
+  }
+}
@@ -14,6 +14,10 @@
 
 package com.googlesource.gerrit.plugins.auditsl4j;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.io.CountingInputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gerrit.server.config.SitePaths;
 import com.google.gerrit.sshd.CommandMetaData;
 import com.google.gerrit.sshd.SshCommand;
@@ -21,24 +25,48 @@ import com.google.inject.Inject;
 import com.googlesource.gerrit.plugins.auditsl4j.logsource.HTTPLog;
 import com.googlesource.gerrit.plugins.auditsl4j.logsource.SSHLog;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.zip.GZIPInputStream;
 import org.kohsuke.args4j.Option;
 
 @CommandMetaData(name = "transform", description = "Transform ssh and http logs into audit logs")
 public class TransformLogsCommand extends SshCommand {
+  static final String PART_SUFFIX = ".part";
+  private static final long FOLLOW_POLL_INTERVAL_MS = 1000;
+  private static final long STOP_TIMEOUT_MS = 10000;
 
   private LoggerAudit loggerAudit;
   private final SitePaths sitePaths;
@@ -57,8 +85,49 @@ public class TransformLogsCommand extends SshCommand {
   @Option(name = "--until", usage = "transform logs until <YYYY-MM-DD>")
   private String until;
 
+  @Option(
+      name = "--follow",
+      usage = "transform the lines appended to the current httpd and sshd logs until interrupted")
+  private boolean follow;
+
+  @Option(name = "--threads", usage = "number of log files transformed in parallel, 1 by default")
+  private int threads = 1;
+
+  @Option(
+      name = "--workers",
+      usage = "number of threads parsing and rendering the lines of the logs, 1 by default")
+  private int workers = 1;
+
+  @Option(
+      name = "--progress-interval",
+      usage = "seconds between progress reports, 10 by default, 0 to disable them")
+  private int progressInterval = 10;
+
+  private TransformProgress progress;
+  private final AtomicLong charsWritten = new AtomicLong();
+  private final AtomicLong duplicatesSkipped = new AtomicLong();
+  private final AtomicLong lateRecords = new AtomicLong();
+  private ExecutorService transformWorkers;
+
+  /** Audit records of one day, transformed from each log type into a part file. */
+  private static class PendingDay {
+    final String date;
+    final TransformCheckpoint checkpoint;
+    final Map<String, Future<Optional<Path>>> parts = new LinkedHashMap<>();
+
+    PendingDay(String date, TransformCheckpoint checkpoint) {
+      this.date = date;
+      this.checkpoint = checkpoint;
+    }
+  }
+
   @Override
   public void run() {
+    progress = new TransformProgress();
+    if (follow) {
+      follow();
+      return;
+    }
 
     Date dateFrom;
     try {
@@ -80,15 +149,212 @@ public class TransformLogsCommand extends SshCommand {
       return;
     }
 
-    Date currentDate = dateFrom;
-    while (currentDate.compareTo(dateUntil) <= 0) {
-      transformHttpdLogs(format.format(currentDate));
-      transformSshdLogs(format.format(currentDate));
+    if (threads < 1) {
+      stderr.print("'threads' must be at least 1");
+      return;
+    }
+
+    if (workers < 1) {
+      stderr.print("'workers' must be at least 1");
+      return;
+    }
+
+    if (progressInterval < 0) {
+      stderr.print("'progress-interval' cannot be negative");
+      return;
+    }
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder()
+                .setNameFormat("audit-sl4j-transform-%d")
+                .setDaemon(true)
+                .build());
+    transformWorkers =
+        Executors.newFixedThreadPool(
+            workers,
+            new ThreadFactoryBuilder()
+                .setNameFormat("audit-sl4j-transform-worker-%d")
+                .setDaemon(true)
+                .build());
+    ScheduledExecutorService reporter =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("audit-sl4j-transform-progress")
+                .setDaemon(true)
+                .build());
+    if (progressInterval > 0) {
+      reporter.scheduleAtFixedRate(
+          this::printProgress, progressInterval, progressInterval, TimeUnit.SECONDS);
+    }
+    try {
+      List<PendingDay> days = new ArrayList<>();
+      Date currentDate = dateFrom;
+      while (currentDate.compareTo(dateUntil) <= 0) {
+        String date = format.format(currentDate);
+        TransformCheckpoint checkpoint = TransformCheckpoint.load(auditLogPath(date));
+        if (checkpoint.isComplete()) {
+          stdout.print("Already transformed: " + auditLogPath(date) + ". Skipping!\n");
+        } else {
+          PendingDay day = new PendingDay(date, checkpoint);
+          progress.addInput(inputSize(day, HTTPLog.logFilenameBase()));
+          progress.addInput(inputSize(day, SSHLog.logFilenameBase()));
+          days.add(day);
+        }
+
+        currentDate = getTomorrowDate(currentDate);
+      }
 
-      currentDate = getTomorrowDate(currentDate);
+      // Days are transformed at most 'threads' days ahead of the one being appended, which bounds
+      // the part files waiting on disk and the memory held by the futures.
+      Deque<PendingDay> submitted = new ArrayDeque<>();
+      for (PendingDay day : days) {
+        submitTransform(executor, day, HTTPLog.logFilenameBase(), HTTPLog::createFromLog);
+        submitTransform(executor, day, SSHLog.logFilenameBase(), SSHLog::createFromLog);
+        submitted.add(day);
+        if (submitted.size() > threads) {
+          writeAuditLog(submitted.remove());
+        }
+      }
+      while (!submitted.isEmpty()) {
+        writeAuditLog(submitted.remove());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      stderr.print("Interrupted! Run the same command again to resume the transformation.\n");
+      return;
+    } catch (IOException e) {
+      stderr.print("Error: " + e.getMessage() + "!\n");
+      return;
+    } finally {
+      stop(reporter, executor, transformWorkers);
     }
 
     stdout.print("Transformed HTTP and SSH logs from " + from + " until " + until + "!\n");
+    printSummary(progress.elapsedNanos());
+  }
+
+  /**
+   * Interrupts the threads of {@code pools} and waits for them to stop, so that no part file or
+   * checkpoint is written once the command has returned.
+   */
+  private void stop(ExecutorService... pools) {
+    for (ExecutorService pool : pools) {
+      pool.shutdownNow();
+    }
+    // Wait even when the command itself has been interrupted
+    boolean interrupted = Thread.interrupted();
+    try {
+      for (ExecutorService pool : pools) {
+        if (!pool.awaitTermination(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+          stderr.print("Error: transform threads did not stop in time!\n");
+        }
+      }
+    } catch (InterruptedException e) {
+      interrupted = true;
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void printProgress() {
+    stdout.print(progress.report() + "\n");
+    stdout.flush();
+  }
+
+  /**
+   * Transforms the lines appended to the current {@code httpd_log} and {@code sshd_log}, following
+   * their rotations, into the audit log of the day of each record until the command is interrupted.
+   */
+  private void follow() {
+    Path httpdLog = sitePaths.logs_dir.resolve(HTTPLog.logFilenameBase());
+    Path sshdLog = sitePaths.logs_dir.resolve(SSHLog.logFilenameBase());
+    stdout.print("Following: " + httpdLog + " and " + sshdLog + " ...\n");
+    stdout.flush();
+
+    try (LogFollower httpd = new LogFollower(httpdLog, false);
+        LogFollower sshd = new LogFollower(sshdLog, false);
+        DailyAuditLog auditLog = new DailyAuditLog()) {
+      while (!Thread.currentThread().isInterrupted()) {
+        int lines =
+            transformLines(httpd.poll(), HTTPLog::createFromLog, auditLog)
+                + transformLines(sshd.poll(), SSHLog::createFromLog, auditLog);
+        if (lines == 0) {
+          Thread.sleep(FOLLOW_POLL_INTERVAL_MS);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (IOException e) {
+      stderr.print("Error: " + e.getMessage() + "!\n");
+    }
+    stdout.print("Stopped following the HTTP and SSH logs!\n");
+  }
+
+  /** Appends the audit records of {@code lines} to the audit log of the day of each record. */
+  private int transformLines(
+      List<String> lines,
+      Function<CharSequence, Optional<? extends TransformableLog>> createTransformable,
+      DailyAuditLog auditLog)
+      throws IOException {
+    if (lines.isEmpty()) {
+      return 0;
+    }
+    for (String line : lines) {
+      Optional<? extends TransformableLog> transformableLog = createTransformable.apply(line);
+      Optional<String> auditRecord =
+          transformableLog.flatMap(transformable -> transformable.toAuditLog(loggerAudit));
+      progress.add(1, auditRecord.isPresent() ? 1 : 0, 0);
+      if (auditRecord.isPresent()) {
+        long when = transformableLog.get().getWhen().orElseGet(System::currentTimeMillis);
+        auditLog.append(when, auditRecord.get());
+        charsWritten.addAndGet(auditRecord.get().length() + 1);
+      }
+    }
+    auditLog.flush();
+    return lines.size();
+  }
+
+  /** Audit log of the day of the last record appended, kept open until a record of another day. */
+  private class DailyAuditLog implements Closeable {
+    private String date;
+    private BufferedWriter output;
+
+    void append(long when, String auditRecord) throws IOException {
+      String recordDate = format.format(new Date(when));
+      if (!recordDate.equals(date)) {
+        close();
+        output =
+            Files.newBufferedWriter(
+                auditLogPath(recordDate),
+                UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        date = recordDate;
+      }
+      output.write(auditRecord);
+      output.write('\n');
+    }
+
+    void flush() throws IOException {
+      if (output != null) {
+        output.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (output != null) {
+        date = null;
+        BufferedWriter closing = output;
+        output = null;
+        closing.close();
+      }
+    }
   }
 
   private Date getTomorrowDate(Date currentDate) {
@@ -98,52 +364,279 @@ public class TransformLogsCommand extends SshCommand {
     return c.getTime();
   }
 
-  private void transformSshdLogs(String currentDateString) {
-    transformLogs(currentDateString, SSHLog.logFilenameBase(), SSHLog::createFromLog);
+  /** Transforms the {@code fileType} log of {@code day}, unless it is in the audit log already. */
+  private void submitTransform(
+      ExecutorService executor,
+      PendingDay day,
+      String fileType,
+      Function<CharSequence, Optional<? extends TransformableLog>> createTransformable)
+      throws IOException {
+    if (!day.checkpoint.isAppended(fileType)) {
+      Path log = inputLog(fileType, day.date);
+      long logSize = Files.exists(log) ? Files.size(log) : 0;
+      day.parts.put(
+          fileType,
+          executor.submit(
+              () ->
+                  transformLogs(
+                      day.date, day.checkpoint, fileType, log, logSize, createTransformable)));
+    }
+  }
+
+  /** Size of the {@code fileType} log of {@code day}, 0 if it is in the audit log already. */
+  private long inputSize(PendingDay day, String fileType) throws IOException {
+    if (day.checkpoint.isAppended(fileType)) {
+      return 0;
+    }
+    Path log = inputLog(fileType, day.date);
+    return Files.exists(log) ? Files.size(log) : 0;
+  }
+
+  /**
+   * Returns the {@code fileType} log of {@code currentDateString}, for example {@code
+   * httpd_log.2019-01-19.gz}, or {@code httpd_log.2019-01-19} when it was not compressed.
+   */
+  private Path inputLog(String fileType, String currentDateString) {
+    Path log = sitePaths.logs_dir.resolve(fileType + "." + currentDateString);
+    Path compressedLog = log.resolveSibling(log.getFileName() + ".gz");
+    return Files.exists(compressedLog) || !Files.exists(log) ? compressedLog : log;
+  }
+
+  private Path auditLogPath(String currentDateString) {
+    return sitePaths.logs_dir.resolve("audit_log." + currentDateString + ".log");
+  }
+
+  /**
+   * Merges the part files of {@code day} into its audit log in time order, once all are complete,
+   * and marks the day as complete once all its log types have been merged.
+   */
+  private void writeAuditLog(PendingDay day) throws InterruptedException {
+    Map<String, Path> parts = new LinkedHashMap<>();
+    boolean complete = true;
+    for (Map.Entry<String, Future<Optional<Path>>> entry : day.parts.entrySet()) {
+      Optional<Path> part;
+      try {
+        part = entry.getValue().get();
+      } catch (ExecutionException e) {
+        stderr.print("Error: " + e.getCause().getMessage() + "!\n");
+        complete = false;
+        continue;
+      }
+      if (part.isPresent()) {
+        parts.put(entry.getKey(), part.get());
+      } else {
+        complete = false;
+      }
+    }
+    if (!parts.isEmpty()) {
+      try {
+        mergeParts(auditLogPath(day.date), day.checkpoint, parts);
+      } catch (ClosedByInterruptException e) {
+        throw new InterruptedException("Interrupted while writing " + auditLogPath(day.date));
+      } catch (IOException e) {
+        stderr.print("Error: " + e.getMessage() + "!\n");
+        complete = false;
+      }
+    }
+    if (complete) {
+      try {
+        day.checkpoint.setComplete();
+      } catch (IOException e) {
+        stderr.print("Error: " + e.getMessage() + "!\n");
+      }
+    }
   }
 
-  private void transformHttpdLogs(String currentDateString) {
-    transformLogs(currentDateString, HTTPLog.logFilenameBase(), HTTPLog::createFromLog);
+  /**
+   * Appends the records of {@code parts} to {@code auditLog} in time order, after rolling back
+   * whatever an interrupted append left after the length recorded in the checkpoint, and skipping
+   * the records of events that were in the audit log before the transformation.
+   */
+  private void mergeParts(Path auditLog, TransformCheckpoint checkpoint, Map<String, Path> parts)
+      throws IOException {
+    OptionalLong outputLength = checkpoint.outputLength();
+    if (!outputLength.isPresent()) {
+      outputLength = OptionalLong.of(Files.exists(auditLog) ? Files.size(auditLog) : 0);
+      checkpoint.setOutputLength(outputLength.getAsLong());
+    }
+    List<BitSet> duplicates = new ArrayList<>();
+    if (outputLength.getAsLong() > 0) {
+      try (AuditLogDeduplicator deduplicator =
+          AuditLogDeduplicator.load(
+              auditLog,
+              outputLength.getAsLong(),
+              loggerAudit::getEventKey,
+              AuditLogDeduplicator.DEFAULT_PARTITION_BYTES)) {
+        for (Path part : parts.values()) {
+          BitSet partDuplicates =
+              deduplicator.findDuplicates(
+                  part, line -> AuditLogMerger.recordOf(line).flatMap(loggerAudit::getEventKey));
+          duplicatesSkipped.addAndGet(partDuplicates.cardinality());
+          duplicates.add(partDuplicates);
+        }
+      }
+    } else {
+      parts.values().forEach(part -> duplicates.add(new BitSet()));
+    }
+
+    AuditLogMerger merger =
+        new AuditLogMerger(
+            AuditLogMerger.DEFAULT_REORDER_WINDOW_MS, AuditLogMerger.DEFAULT_MAX_BUFFERED_RECORDS);
+    try (FileChannel out =
+        FileChannel.open(auditLog, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      out.truncate(outputLength.getAsLong());
+      out.position(outputLength.getAsLong());
+      Writer output =
+          new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(out), UTF_8));
+      merger.merge(new ArrayList<>(parts.values()), duplicates, output);
+      output.flush();
+      out.force(false);
+      checkpoint.setAppended(parts.keySet(), out.size());
+    } finally {
+      charsWritten.addAndGet(merger.charsWritten());
+      lateRecords.addAndGet(merger.late());
+    }
+    for (Path part : parts.values()) {
+      Files.delete(part);
+    }
   }
 
-  private void transformLogs(
+  /**
+   * Transforms the {@code fileType} log of {@code currentDateString} into a part file, resuming
+   * from the progress recorded in {@code checkpoint}.
+   */
+  private Optional<Path> transformLogs(
       String currentDateString,
+      TransformCheckpoint checkpoint,
       String fileType,
-      Function<String, Optional<? extends TransformableLog>> createTransformable) {
-    // Log format example: httpd_log.2019-01-19.gz
-    String logFileName = sitePaths.logs_dir + "/" + fileType + "." + currentDateString + ".gz";
-    String auditLogFileName = sitePaths.logs_dir + "/audit_log." + currentDateString + ".log";
+      Path log,
+      long logSize,
+      Function<CharSequence, Optional<? extends TransformableLog>> createTransformable)
+      throws InterruptedException, IOException {
+    String logFileName = log.toString();
+    boolean mapped = !logFileName.endsWith(".gz");
+    Path auditLog = auditLogPath(currentDateString);
+    Path part = auditLog.resolveSibling(auditLog.getFileName() + "." + fileType + PART_SUFFIX);
 
-    stdout.print("Transforming: " + logFileName + " => " + auditLogFileName + " ...\n");
+    if (checkpoint.isTransformed(fileType) && Files.exists(part)) {
+      progress.add(0, 0, logSize);
+      return Optional.of(part);
+    }
+    long skip = 0;
+    if (Files.exists(part) && Files.size(part) >= checkpoint.partLength(fileType)) {
+      skip = checkpoint.lines(fileType);
+      try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+        channel.truncate(checkpoint.partLength(fileType));
+      }
+    }
+
+    if (skip > 0) {
+      stdout.print(
+          "Resuming: " + logFileName + " => " + auditLog + " from line " + (skip + 1) + " ...\n");
+    } else {
+      stdout.print("Transforming: " + logFileName + " => " + auditLog + " ...\n");
+    }
     stdout.flush();
 
-    try {
-      GZIPInputStream gzis = new GZIPInputStream(new FileInputStream(logFileName));
-      BufferedReader input = new BufferedReader(new InputStreamReader(gzis));
-
-      PrintWriter pw =
-          new PrintWriter(
-              Files.newBufferedWriter(
-                  Paths.get(auditLogFileName),
-                  StandardOpenOption.CREATE,
-                  StandardOpenOption.WRITE,
-                  StandardOpenOption.APPEND));
-
-      input
-          .lines()
-          .map(createTransformable)
-          .map(
-              maybeTransformableLog ->
-                  maybeTransformableLog.flatMap(
-                      transformableLog -> transformableLog.toAuditLog(loggerAudit)))
-          .filter(Optional::isPresent)
-          .map(Optional::get)
-          .forEach(pw::println);
-      pw.flush();
+    Function<CharSequence, Optional<String>> transform =
+        line ->
+            createTransformable
+                .apply(line)
+                .flatMap(
+                    transformableLog ->
+                        transformableLog
+                            .getWhen()
+                            .flatMap(
+                                when ->
+                                    transformableLog
+                                        .toAuditLog(loggerAudit)
+                                        .map(record -> AuditLogMerger.partLine(when, record))));
+    long skipped = skip;
+    int batchSize =
+        mapped ? LogTransformPipeline.DEFAULT_CHUNK_BYTES : LogTransformPipeline.DEFAULT_BATCH_SIZE;
+    LogTransformPipeline pipeline =
+        new LogTransformPipeline(transformWorkers, batchSize, workers * 4);
+    // Lines, records and bytes of the log already added to the progress
+    long[] reported = new long[3];
+    try (FileChannel mappedInput = mapped ? FileChannel.open(log, StandardOpenOption.READ) : null;
+        CountingInputStream compressedInput =
+            mapped ? null : new CountingInputStream(new FileInputStream(logFileName));
+        BufferedReader input =
+            mapped
+                ? null
+                : new BufferedReader(new InputStreamReader(new GZIPInputStream(compressedInput)));
+        BufferedWriter output =
+            Files.newBufferedWriter(
+                part,
+                UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                skipped > 0 ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+      LogTransformPipeline.Listener listener =
+          lines -> {
+            output.flush();
+            checkpoint.setProgress(fileType, skipped + lines, Files.size(part));
+            long bytes = mapped ? pipeline.inputPosition() : compressedInput.getCount();
+            progress.add(
+                lines - reported[0], pipeline.recordsWritten() - reported[1], bytes - reported[2]);
+            reported[0] = lines;
+            reported[1] = pipeline.recordsWritten();
+            reported[2] = bytes;
+          };
+      if (mapped) {
+        pipeline.run(mappedInput, skipped, transform, output, listener);
+      } else {
+        for (long i = 0; i < skipped; i++) {
+          if (input.readLine() == null) {
+            throw new IOException(
+                logFileName + " has fewer lines than the " + skipped + " already transformed");
+          }
+        }
+        pipeline.run(input, transform::apply, output, listener);
+      }
+      output.flush();
+      checkpoint.setTransformed(fileType, skipped + pipeline.linesRead(), Files.size(part));
     } catch (FileNotFoundException fnfe) {
       stderr.print("Cannot find '" + logFileName + "'. Skipping!\n");
+      return Optional.empty();
+    } catch (ClosedByInterruptException e) {
+      throw new InterruptedException("Interrupted while transforming " + logFileName);
     } catch (IOException e) {
       stderr.print("Error: " + e.getMessage() + "!\n");
+      return Optional.empty();
+    } finally {
+      // The rest of the log is not left to transform, even if it failed
+      progress.add(0, 0, Math.max(0, logSize - reported[2]));
+    }
+    return Optional.of(part);
+  }
+
+  private void printSummary(long elapsedNanos) {
+    double seconds = Math.max(1, elapsedNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    stdout.print(
+        String.format(
+            "Read %d log lines and wrote %d audit records (%d chars) in %.1fs with %d threads"
+                + " and %d workers: %.0f lines/s, %.0f records/s\n",
+            progress.linesRead(),
+            progress.recordsWritten(),
+            charsWritten.get(),
+            seconds,
+            threads,
+            workers,
+            progress.linesRead() / seconds,
+            progress.recordsWritten() / seconds));
+    if (progress.parseFailures() > 0) {
+      stdout.print("Could not transform " + progress.parseFailures() + " log lines\n");
+    }
+    if (lateRecords.get() > 0) {
+      stdout.print(
+          "Wrote "
+              + lateRecords.get()
+              + " audit records out of time order, later than the reorder window\n");
+    }
+    if (duplicatesSkipped.get() > 0) {
+      stdout.print(
+          "Skipped " + duplicatesSkipped.get() + " audit records already in the audit logs\n");
     }
   }
 }
@@ -0,0 +1,100 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Progress of a transformation, updated by the threads transforming the logs and reported
+ * periodically while it runs.
+ *
+ * <p>The remaining time is estimated from the bytes read so far out of the size of the logs to
+ * transform, compressed or not as they are on disk, which tracks the work left more closely than
+ * the number of lines, unknown until a compressed log has been read.
+ */
+class TransformProgress {
+  private final LongSupplier nanoClock;
+  private final long startNanos;
+
+  private final AtomicLong inputBytes = new AtomicLong();
+  private final AtomicLong bytesRead = new AtomicLong();
+  private final AtomicLong linesRead = new AtomicLong();
+  private final AtomicLong recordsWritten = new AtomicLong();
+
+  TransformProgress() {
+    this(System::nanoTime);
+  }
+
+  TransformProgress(LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+    this.startNanos = nanoClock.getAsLong();
+  }
+
+  /** Adds {@code bytes} to the size of the logs to transform. */
+  void addInput(long bytes) {
+    inputBytes.addAndGet(bytes);
+  }
+
+  /** Records that {@code lines} more lines have been transformed into {@code records}. */
+  void add(long lines, long records, long bytes) {
+    linesRead.addAndGet(lines);
+    recordsWritten.addAndGet(records);
+    bytesRead.addAndGet(bytes);
+  }
+
+  long linesRead() {
+    return linesRead.get();
+  }
+
+  long recordsWritten() {
+    return recordsWritten.get();
+  }
+
+  /** Number of lines that could not be transformed into an audit record. */
+  long parseFailures() {
+    return linesRead.get() - recordsWritten.get();
+  }
+
+  long elapsedNanos() {
+    return nanoClock.getAsLong() - startNanos;
+  }
+
+  String report() {
+    double seconds = Math.max(1, elapsedNanos()) / (double) TimeUnit.SECONDS.toNanos(1);
+    long total = inputBytes.get();
+    long read = Math.min(bytesRead.get(), total);
+    double bytesPerSecond = read / seconds;
+    StringBuilder report =
+        new StringBuilder(
+            String.format(
+                "Progress: %.1f%% of %d bytes, %d lines: %.0f lines/s, %.0f bytes/s,"
+                    + " %d parse failures",
+                total > 0 ? 100.0 * read / total : 100.0,
+                total,
+                linesRead.get(),
+                linesRead.get() / seconds,
+                bytesPerSecond,
+                parseFailures()));
+    if (read > 0 && read < total) {
+      long etaSeconds = (long) ((total - read) / bytesPerSecond);
+      report.append(
+          String.format(
+              ", ETA %d:%02d:%02d", etaSeconds / 3600, etaSeconds / 60 % 60, etaSeconds % 60));
+    }
+    return report.toString();
+  }
+}
@@ -17,5 +17,7 @@ package com.googlesource.gerrit.plugins.auditsl4j;
 import java.util.Optional;
 
 public interface TransformableLog {
+  Optional<Long> getWhen();
+
   Optional<String> toAuditLog(LoggerAudit loggerAudit);
 }
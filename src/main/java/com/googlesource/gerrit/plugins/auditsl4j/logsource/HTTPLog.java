@@ -25,7 +25,6 @@ import com.googlesource.gerrit.plugins.auditsl4j.LoggerAudit;
 import com.googlesource.gerrit.plugins.auditsl4j.TransformableAuditLogType;
 import com.googlesource.gerrit.plugins.auditsl4j.TransformableLog;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -34,6 +33,13 @@ import org.slf4j.LoggerFactory;
 
 public class HTTPLog implements TransformableLog {
   private static final Logger log = LoggerFactory.getLogger(HTTPLog.class);
+  private static final Pattern HTTP_LOG_PATTERN =
+      Pattern.compile(
+          "^(?<ip>.*?)\\s-\\s(?<user>.*?)\\s\\["
+              + "(?<timestamp>.*?)\\]\\s\""
+              + "(?<method>\\w+)\\s(?<resource>.*?)\\s(?<protocol>.*?)\"\\s"
+              + "(?<status>\\d+)\\s(?<contentLength>\\d+|-)\\s(?<referrer>.*?)\\s(?<userAgent>.*?)$");
+
   private String ip;
   private String user;
   private String method;
@@ -68,17 +74,24 @@ public class HTTPLog implements TransformableLog {
     this.userAgent = userAgent;
   }
 
-  public static Optional<HTTPLog> createFromLog(String line) {
+  public static Optional<HTTPLog> createFromLog(CharSequence line) {
     // HTTP log example:
     // 104.32.164.100 - - [24/Jan/2019:00:00:03 +0000] "GET /plugins/events-log/ HTTP/1.1" 404 9 -
     // "Apache-HttpClient/4.5.3 (Java/1.8.0_191)"
-    Matcher a =
-        Pattern.compile(
-                "^(?<ip>.*?)\\s-\\s(?<user>.*?)\\s\\["
-                    + "(?<timestamp>.*?)\\]\\s\""
-                    + "(?<method>\\w+)\\s(?<resource>.*?)\\s(?<protocol>.*?)\"\\s"
-                    + "(?<status>\\d+)\\s(?<contentLength>\\d+|-)\\s(?<referrer>.*?)\\s(?<userAgent>.*?)$")
-            .matcher(line);
+    try {
+      HTTPLog scanned = scan(line);
+      if (scanned != null) {
+        return Optional.of(scanned);
+      }
+    } catch (NumberFormatException e) {
+      log.error("Something wrong while parsing line: " + line);
+      return Optional.empty();
+    }
+    return parseWithPattern(line.toString());
+  }
+
+  static Optional<HTTPLog> parseWithPattern(String line) {
+    Matcher a = HTTP_LOG_PATTERN.matcher(line);
     if (a.matches()) {
       try {
         return Optional.of(
@@ -102,6 +115,78 @@ public class HTTPLog implements TransformableLog {
     return Optional.empty();
   }
 
+  /**
+   * Splits {@code line} in a single pass into the same fields as {@link #HTTP_LOG_PATTERN}, taking
+   * at each step the shortest field the pattern would try first. Returns null when this does not
+   * lead to a match and the line has to go through the pattern, which backtracks.
+   */
+  static HTTPLog scan(CharSequence line) {
+    if (LineScanner.hasLineTerminator(line)) {
+      return null;
+    }
+    int ipEnd = LineScanner.find(line, 0, " - ");
+    if (ipEnd < 0) {
+      return null;
+    }
+    int userStart = ipEnd + 3;
+    int userEnd = LineScanner.find(line, userStart, " [");
+    if (userEnd < 0) {
+      return null;
+    }
+    int timestampStart = userEnd + 2;
+    int timestampEnd = LineScanner.find(line, timestampStart, "] \"");
+    if (timestampEnd < 0) {
+      return null;
+    }
+    int methodStart = timestampEnd + 3;
+    int methodEnd = LineScanner.skipWordChars(line, methodStart);
+    if (methodEnd == methodStart || !LineScanner.matchesAt(line, methodEnd, " ")) {
+      return null;
+    }
+    int resourceStart = methodEnd + 1;
+    int resourceEnd = LineScanner.find(line, resourceStart, " ");
+    if (resourceEnd < 0) {
+      return null;
+    }
+    int protocolStart = resourceEnd + 1;
+    for (int protocolEnd = LineScanner.find(line, protocolStart, "\" ");
+        protocolEnd >= 0;
+        protocolEnd = LineScanner.find(line, protocolEnd + 1, "\" ")) {
+      int statusStart = protocolEnd + 2;
+      int statusEnd = LineScanner.skipDigits(line, statusStart);
+      if (statusEnd == statusStart || !LineScanner.matchesAt(line, statusEnd, " ")) {
+        continue;
+      }
+      int contentLengthStart = statusEnd + 1;
+      int contentLengthEnd = LineScanner.skipDigits(line, contentLengthStart);
+      if (contentLengthEnd == contentLengthStart
+          && LineScanner.matchesAt(line, contentLengthStart, "-")) {
+        contentLengthEnd++;
+      }
+      if (contentLengthEnd == contentLengthStart
+          || !LineScanner.matchesAt(line, contentLengthEnd, " ")) {
+        continue;
+      }
+      int referrerStart = contentLengthEnd + 1;
+      int referrerEnd = LineScanner.find(line, referrerStart, " ");
+      if (referrerEnd < 0) {
+        continue;
+      }
+      return new HTTPLog(
+          LineScanner.substring(line, 0, ipEnd),
+          LineScanner.substring(line, userStart, userEnd),
+          LineScanner.substring(line, timestampStart, timestampEnd),
+          LineScanner.substring(line, methodStart, methodEnd),
+          LineScanner.substring(line, resourceStart, resourceEnd),
+          LineScanner.substring(line, protocolStart, protocolEnd),
+          Integer.parseInt(LineScanner.substring(line, statusStart, statusEnd)),
+          LineScanner.substring(line, contentLengthStart, contentLengthEnd),
+          LineScanner.substring(line, referrerStart, referrerEnd),
+          LineScanner.substring(line, referrerEnd + 1));
+    }
+    return null;
+  }
+
   private AuditUser getAuditUser() {
     AuditUser au = new AuditUser();
     au.setUserName(this.user);
@@ -110,14 +195,12 @@ public class HTTPLog implements TransformableLog {
   }
 
   private AccessPath getAccessPath() {
-    Matcher a = Pattern.compile("^\"git.*?").matcher(this.userAgent);
-    return a.matches() ? AccessPath.GIT : AccessPath.REST_API;
+    return this.userAgent.startsWith("\"git") ? AccessPath.GIT : AccessPath.REST_API;
   }
 
   public Optional<Long> getWhen() {
-    SimpleDateFormat format = new SimpleDateFormat("dd/MMM/yyyy:hh:mm:ss Z");
     try {
-      return Optional.of(format.parse(this.timestamp).getTime());
+      return Optional.of(LogTimestampParser.HTTP.parse(this.timestamp));
     } catch (ParseException pe) {
       log.error(
           "Can't parse timestamp: '" + this.timestamp + "'. Error message: " + pe.getMessage());
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlesource.gerrit.plugins.auditsl4j.logsource;
+
+/**
+ * Character classes and searches of {@link java.util.regex.Pattern}, for scanning log lines
+ * without regular expressions.
+ */
+final class LineScanner {
+
+  /** Same characters as {@code \s}. */
+  static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  /** Whether {@code line} contains a character that {@code .} does not match. */
+  static boolean hasLineTerminator(CharSequence line) {
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Index of the first occurrence of {@code separator} in {@code line} from {@code from}, where a
+   * space in {@code separator} stands for any whitespace, or -1.
+   */
+  static int find(CharSequence line, int from, String separator) {
+    for (int i = from; i <= line.length() - separator.length(); i++) {
+      if (matchesAt(line, i, separator)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  static boolean matchesAt(CharSequence line, int at, String separator) {
+    if (at < 0 || at + separator.length() > line.length()) {
+      return false;
+    }
+    for (int i = 0; i < separator.length(); i++) {
+      char expected = separator.charAt(i);
+      char c = line.charAt(at + i);
+      if (expected == ' ' ? !isWhitespace(c) : c != expected) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Whether {@code line} contains exactly {@code prefix} at {@code at}. */
+  static boolean startsWith(CharSequence line, String prefix, int at) {
+    if (at < 0 || at + prefix.length() > line.length()) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length(); i++) {
+      if (line.charAt(at + i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static String substring(CharSequence line, int start, int end) {
+    return line.subSequence(start, end).toString();
+  }
+
+  static String substring(CharSequence line, int start) {
+    return substring(line, start, line.length());
+  }
+
+  /** End of the run of {@code \d} characters starting at {@code from}. */
+  static int skipDigits(CharSequence line, int from) {
+    int i = from;
+    while (i < line.length() && line.charAt(i) >= '0' && line.charAt(i) <= '9') {
+      i++;
+    }
+    return i;
+  }
+
+  /** End of the run of {@code \w} characters starting at {@code from}. */
+  static int skipWordChars(CharSequence line, int from) {
+    int i = from;
+    while (i < line.length() && isWordChar(line.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isWordChar(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+  }
+
+  private LineScanner() {}
+}
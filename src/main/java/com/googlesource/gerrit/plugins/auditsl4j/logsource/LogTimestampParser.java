@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlesource.gerrit.plugins.auditsl4j.logsource;
+
+import java.text.ParseException;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Parses the timestamps of the HTTP and SSH logs into epoch milliseconds.
+ *
+ * <p>Consecutive lines of a log almost always share the same minute, so each thread keeps the
+ * epoch of the last minute it parsed, with its time zone, and only adds the seconds and
+ * milliseconds of the following timestamps of the same minute.
+ */
+final class LogTimestampParser {
+  /** Timestamps of the HTTP log, for example {@code 24/Jan/2019:00:00:03 +0000}. */
+  static final LogTimestampParser HTTP = new LogTimestampParser("dd/MMM/yyyy:HH:mm", false);
+
+  /** Timestamps of the SSH log, for example {@code 2019-01-23 12:44:04,723 +0100}. */
+  static final LogTimestampParser SSH = new LogTimestampParser("yyyy-MM-dd HH:mm", true);
+
+  private static class Minute {
+    final String timestamp;
+    final long epochMs;
+
+    Minute(String timestamp, long epochMs) {
+      this.timestamp = timestamp;
+      this.epochMs = epochMs;
+    }
+  }
+
+  private final DateTimeFormatter minuteFormat;
+  private final int minuteLength;
+  private final int secondsStart;
+  private final int millisStart;
+  private final int zoneStart;
+  private final ThreadLocal<Minute> lastMinute = new ThreadLocal<>();
+
+  private LogTimestampParser(String minutePattern, boolean withMillis) {
+    this.minuteFormat = DateTimeFormatter.ofPattern(minutePattern, Locale.US);
+    this.minuteLength = minutePattern.length();
+    this.secondsStart = minuteLength + 1;
+    this.millisStart = withMillis ? secondsStart + 3 : -1;
+    this.zoneStart = (withMillis ? millisStart + 3 : secondsStart + 2) + 1;
+  }
+
+  long parse(String timestamp) throws ParseException {
+    if (timestamp.length() <= zoneStart
+        || timestamp.charAt(minuteLength) != ':'
+        || timestamp.charAt(zoneStart - 1) != ' '
+        || (millisStart > 0 && timestamp.charAt(millisStart - 1) != ',')) {
+      throw unparseable(timestamp, 0);
+    }
+    long epochMs = minuteEpochMs(timestamp) + digits(timestamp, secondsStart, 2) * 1000L;
+    if (millisStart > 0) {
+      epochMs += digits(timestamp, millisStart, 3);
+    }
+    return epochMs;
+  }
+
+  private long minuteEpochMs(String timestamp) throws ParseException {
+    Minute minute = lastMinute.get();
+    if (minute != null
+        && minute.timestamp.length() == timestamp.length()
+        && timestamp.regionMatches(0, minute.timestamp, 0, minuteLength)
+        && timestamp.regionMatches(
+            zoneStart, minute.timestamp, zoneStart, timestamp.length() - zoneStart)) {
+      return minute.epochMs;
+    }
+    try {
+      long epochMs =
+          LocalDateTime.parse(timestamp.substring(0, minuteLength), minuteFormat)
+                  .toEpochSecond(ZoneOffset.of(timestamp.substring(zoneStart)))
+              * 1000L;
+      lastMinute.set(new Minute(timestamp, epochMs));
+      return epochMs;
+    } catch (DateTimeException e) {
+      throw unparseable(timestamp, 0);
+    }
+  }
+
+  private static int digits(String timestamp, int start, int count) throws ParseException {
+    int value = 0;
+    for (int i = start; i < start + count; i++) {
+      char c = timestamp.charAt(i);
+      if (c < '0' || c > '9') {
+        throw unparseable(timestamp, i);
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  private static ParseException unparseable(String timestamp, int offset) {
+    return new ParseException("Unparseable date: \"" + timestamp + "\"", offset);
+  }
+}
@@ -23,7 +23,6 @@ import com.googlesource.gerrit.plugins.auditsl4j.LoggerAudit;
 import com.googlesource.gerrit.plugins.auditsl4j.TransformableAuditLogType;
 import com.googlesource.gerrit.plugins.auditsl4j.TransformableLog;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -32,6 +31,18 @@ import org.slf4j.LoggerFactory;
 
 public class SSHLog implements TransformableLog {
   private static final Logger log = LoggerFactory.getLogger(SSHLog.class);
+  private static final Pattern AUTH_COMMAND_PATTERN =
+      Pattern.compile(
+          "^\\[(?<timestamp>.*?)\\]\\s(?<session>.*?)\\s"
+              + "(?<user>.*?)\\s(?<accountId>.*?)\\s(?<command>LOGOUT|LOGIN)(:?\\sFROM.*?)?$");
+  private static final Pattern AUTH_FAILURE_PATTERN =
+      Pattern.compile(
+          "^\\[(?<timestamp>.*?)\\]\\s(?<session>.*?)\\s(?<user>.*?)\\s(?<command>AUTH FAILURE)(:?\\sFROM.*?)?$");
+  private static final Pattern NON_AUTH_COMMAND_PATTERN =
+      Pattern.compile(
+          "^\\[(?<timestamp>.*?)\\]\\s(?<session>.*?)\\s(?<user>.*?)\\s(?<accountId>.*?)\\s(?<command>.*?)(\\s(?<waitTime>\\d+ms)\\s(?<execTime>\\d+ms)\\s(?<result>.*?))?$");
+  private static final String[] AUTH_COMMANDS = {"LOGOUT", "LOGIN"};
+  private static final String AUTH_FAILURE = "AUTH FAILURE";
 
   private String user;
   private String session;
@@ -61,22 +72,21 @@ public class SSHLog implements TransformableLog {
     this.result = result;
   }
 
-  public static Optional<SSHLog> createFromLog(String line) {
-    Matcher authCommand =
-        Pattern.compile(
-                "^\\[(?<timestamp>.*?)\\]\\s(?<session>.*?)\\s"
-                    + "(?<user>.*?)\\s(?<accountId>.*?)\\s(?<command>LOGOUT|LOGIN)(:?\\sFROM.*?)?$")
-            .matcher(line);
-
-    Matcher authFailure =
-        Pattern.compile(
-                "^\\[(?<timestamp>.*?)\\]\\s(?<session>.*?)\\s(?<user>.*?)\\s(?<command>AUTH FAILURE)(:?\\sFROM.*?)?$")
-            .matcher(line);
+  public static Optional<SSHLog> createFromLog(CharSequence line) {
+    Optional<SSHLog> scanned = scan(line);
+    if (scanned != null) {
+      if (!scanned.isPresent()) {
+        log.error("Can't extract any info from line: " + line);
+      }
+      return scanned;
+    }
+    return parseWithPatterns(line.toString());
+  }
 
-    Matcher nonAuthCommand =
-        Pattern.compile(
-                "^\\[(?<timestamp>.*?)\\]\\s(?<session>.*?)\\s(?<user>.*?)\\s(?<accountId>.*?)\\s(?<command>.*?)(\\s(?<waitTime>\\d+ms)\\s(?<execTime>\\d+ms)\\s(?<result>.*?))?$")
-            .matcher(line);
+  static Optional<SSHLog> parseWithPatterns(String line) {
+    Matcher authCommand = AUTH_COMMAND_PATTERN.matcher(line);
+    Matcher authFailure = AUTH_FAILURE_PATTERN.matcher(line);
+    Matcher nonAuthCommand = NON_AUTH_COMMAND_PATTERN.matcher(line);
 
     if (authCommand.matches()) {
       try {
@@ -130,6 +140,141 @@ public class SSHLog implements TransformableLog {
     return Optional.empty();
   }
 
+  /**
+   * Splits {@code line} in a single pass into the same fields as the first of {@link
+   * #AUTH_COMMAND_PATTERN}, {@link #AUTH_FAILURE_PATTERN} and {@link #NON_AUTH_COMMAND_PATTERN}
+   * matching it. The fields before the command are separated at their first possible end, since
+   * taking a later one only leaves fewer candidates for the command. Returns null when the line
+   * contains line terminators and has to go through the patterns.
+   */
+  static Optional<SSHLog> scan(CharSequence line) {
+    if (LineScanner.hasLineTerminator(line)) {
+      return null;
+    }
+    if (!LineScanner.startsWith(line, "[", 0)) {
+      return Optional.empty();
+    }
+    int timestampEnd = LineScanner.find(line, 1, "] ");
+    if (timestampEnd < 0) {
+      return Optional.empty();
+    }
+    String timestamp = LineScanner.substring(line, 1, timestampEnd);
+    int sessionStart = timestampEnd + 2;
+    int sessionEnd = LineScanner.find(line, sessionStart, " ");
+    if (sessionEnd < 0) {
+      return Optional.empty();
+    }
+    String session = LineScanner.substring(line, sessionStart, sessionEnd);
+    int userStart = sessionEnd + 1;
+    int userEnd = LineScanner.find(line, userStart, " ");
+    if (userEnd < 0) {
+      return Optional.empty();
+    }
+    int accountIdStart = userEnd + 1;
+
+    for (int accountIdEnd = LineScanner.find(line, accountIdStart, " ");
+        accountIdEnd >= 0;
+        accountIdEnd = LineScanner.find(line, accountIdEnd + 1, " ")) {
+      int commandStart = accountIdEnd + 1;
+      for (String command : AUTH_COMMANDS) {
+        if (LineScanner.startsWith(line, command, commandStart)
+            && isFromSuffix(line, commandStart + command.length())) {
+          return Optional.of(
+              new SSHLog(
+                  timestamp,
+                  session,
+                  LineScanner.substring(line, userStart, userEnd),
+                  LineScanner.substring(line, accountIdStart, accountIdEnd),
+                  command,
+                  null,
+                  null,
+                  "0"));
+        }
+      }
+    }
+
+    for (int failureUserEnd = userEnd;
+        failureUserEnd >= 0;
+        failureUserEnd = LineScanner.find(line, failureUserEnd + 1, " ")) {
+      int commandStart = failureUserEnd + 1;
+      if (LineScanner.startsWith(line, AUTH_FAILURE, commandStart)
+          && isFromSuffix(line, commandStart + AUTH_FAILURE.length())) {
+        return Optional.of(
+            new SSHLog(
+                timestamp,
+                session,
+                LineScanner.substring(line, userStart, failureUserEnd),
+                null,
+                AUTH_FAILURE,
+                null,
+                null,
+                "0"));
+      }
+    }
+
+    int accountIdEnd = LineScanner.find(line, accountIdStart, " ");
+    if (accountIdEnd < 0) {
+      return Optional.empty();
+    }
+    String user = LineScanner.substring(line, userStart, userEnd);
+    String accountId = LineScanner.substring(line, accountIdStart, accountIdEnd);
+    int commandStart = accountIdEnd + 1;
+    for (int commandEnd = LineScanner.find(line, commandStart, " ");
+        commandEnd >= 0;
+        commandEnd = LineScanner.find(line, commandEnd + 1, " ")) {
+      int waitTimeStart = commandEnd + 1;
+      int waitTimeEnd = millisEnd(line, waitTimeStart);
+      if (waitTimeEnd < 0 || !LineScanner.matchesAt(line, waitTimeEnd, " ")) {
+        continue;
+      }
+      int execTimeStart = waitTimeEnd + 1;
+      int execTimeEnd = millisEnd(line, execTimeStart);
+      if (execTimeEnd < 0 || !LineScanner.matchesAt(line, execTimeEnd, " ")) {
+        continue;
+      }
+      return Optional.of(
+          new SSHLog(
+              timestamp,
+              session,
+              user,
+              accountId,
+              LineScanner.substring(line, commandStart, commandEnd),
+              LineScanner.substring(line, waitTimeStart, waitTimeEnd),
+              LineScanner.substring(line, execTimeStart, execTimeEnd),
+              LineScanner.substring(line, execTimeEnd + 1)));
+    }
+    return Optional.of(
+        new SSHLog(
+            timestamp,
+            session,
+            user,
+            accountId,
+            LineScanner.substring(line, commandStart),
+            null,
+            null,
+            "0"));
+  }
+
+  /** Whether the rest of {@code line} from {@code from} matches {@code (:?\sFROM.*?)?$}. */
+  private static boolean isFromSuffix(CharSequence line, int from) {
+    if (from == line.length()) {
+      return true;
+    }
+    if (line.charAt(from) == ':' && LineScanner.matchesAt(line, from + 1, " FROM")) {
+      return true;
+    }
+    return LineScanner.matchesAt(line, from, " FROM");
+  }
+
+  /** End of the {@code \d+ms} starting at {@code from}, or -1. */
+  private static int millisEnd(CharSequence line, int from) {
+    int digitsEnd = LineScanner.skipDigits(line, from);
+    if (digitsEnd == from || !LineScanner.startsWith(line, "ms", digitsEnd)) {
+      return -1;
+    }
+    return digitsEnd + 2;
+  }
+
   private AuditUser getAuditUser() {
     AuditUser au = new AuditUser();
     au.setUserName(this.user);
@@ -137,11 +282,10 @@ public class SSHLog implements TransformableLog {
     return au;
   }
 
-  private Optional<Long> getWhen() {
+  public Optional<Long> getWhen() {
     // Timestamp format example: 2019-01-23 12:44:04,723 +0100
-    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss,SSS Z");
     try {
-      return Optional.of(format.parse(this.timestamp).getTime());
+      return Optional.of(LogTimestampParser.SSH.parse(this.timestamp));
     } catch (ParseException pe) {
       log.error(
           "Can't parse timestamp: '" + this.timestamp + "'. Error message: " + pe.getMessage());
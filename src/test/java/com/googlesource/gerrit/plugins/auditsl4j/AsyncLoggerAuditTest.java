@@ -0,0 +1,106 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gerrit.server.audit.SshAuditEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class AsyncLoggerAuditTest implements WaitForCondition {
+  private static final int SESSIONS = 8;
+  private static final int EVENTS_PER_SESSION = 500;
+
+  private final List<String> records = new ArrayList<>();
+  private final AuditWriter synchronizedWriter =
+      msg -> {
+        synchronized (records) {
+          records.add(msg);
+        }
+      };
+
+  @Test
+  public void shouldWriteEventsOfEachSessionInOrder() throws Exception {
+    AsyncLoggerAudit asyncLoggerAudit =
+        new AsyncLoggerAudit(
+            new LoggerAudit(synchronizedWriter, new AuditRendererToCsv()),
+            4,
+            64,
+            AuditRingBuffer.OverflowPolicy.BLOCK,
+            10000);
+    asyncLoggerAudit.start();
+
+    List<Thread> threads = new ArrayList<>();
+    for (int s = 0; s < SESSIONS; s++) {
+      String sessionId = "session" + s;
+      Thread thread =
+          new Thread(
+              () -> {
+                for (int i = 0; i < EVENTS_PER_SESSION; i++) {
+                  asyncLoggerAudit.onAuditableAction(
+                      new SshAuditEvent(sessionId, new AuditUser(), "action" + i, i, null, null));
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(waitFor(() -> asyncLoggerAudit.queued() == 0));
+    asyncLoggerAudit.stop();
+
+    Map<String, Integer> nextAction = new HashMap<>();
+    int events = 0;
+    synchronized (records) {
+      for (String record : records) {
+        String[] columns = record.split(" \\| ");
+        if (!columns[2].startsWith("session")) {
+          continue;
+        }
+        int expected = nextAction.merge(columns[2], 1, Integer::sum) - 1;
+        assertEquals("action" + expected, columns[5]);
+        events++;
+      }
+    }
+    assertEquals(SESSIONS * EVENTS_PER_SESSION, events);
+    assertEquals(0, asyncLoggerAudit.dropped());
+  }
+
+  @Test
+  public void shouldDropEventsWhenQueueIsFull() {
+    AsyncLoggerAudit asyncLoggerAudit =
+        new AsyncLoggerAudit(
+            new LoggerAudit(synchronizedWriter, new AuditRendererToCsv()),
+            1,
+            4,
+            AuditRingBuffer.OverflowPolicy.DROP_NEWEST,
+            0);
+    for (int i = 0; i < 6; i++) {
+      asyncLoggerAudit.onAuditableAction(
+          new SshAuditEvent("session", new AuditUser(), "action" + i, i, null, null));
+    }
+    asyncLoggerAudit.start();
+    asyncLoggerAudit.stop();
+
+    assertEquals(2, asyncLoggerAudit.dropped());
+    assertEquals(0, asyncLoggerAudit.queued());
+  }
+}
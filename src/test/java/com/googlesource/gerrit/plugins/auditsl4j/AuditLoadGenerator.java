@@ -0,0 +1,231 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.gerrit.server.AccessPath;
+import com.google.gerrit.server.AuditEvent;
+import com.google.gerrit.server.audit.AuditListener;
+import com.google.gerrit.server.audit.HttpAuditEvent;
+import com.google.gerrit.server.audit.SshAuditEvent;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fires a mix of HTTP, REST and SSH audit events into an {@link AuditListener} from several
+ * threads at a target rate, and measures the latency between the creation of each event and the
+ * moment its record reaches the final writer.
+ *
+ * <p>The final writer must be wrapped with {@link #persistedBy(AuditWriter)}, so that the
+ * records reaching it can be matched with the generated events through their UUID.
+ */
+public class AuditLoadGenerator {
+  private static final String UUID_PREFIX = "audit:";
+  private static final int UUID_LENGTH = UUID_PREFIX.length() + 36;
+
+  public static class Result {
+    public final long generated;
+    public final long persisted;
+    public final double eventsPerSecond;
+    public final long p50Micros;
+    public final long p99Micros;
+    public final long p999Micros;
+    public final long maxMicros;
+
+    Result(long generated, long[] latenciesNanos, long elapsedNanos) {
+      this.generated = generated;
+      this.persisted = latenciesNanos.length;
+      this.eventsPerSecond = persisted * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+      Arrays.sort(latenciesNanos);
+      this.p50Micros = percentileMicros(latenciesNanos, 0.5);
+      this.p99Micros = percentileMicros(latenciesNanos, 0.99);
+      this.p999Micros = percentileMicros(latenciesNanos, 0.999);
+      this.maxMicros = percentileMicros(latenciesNanos, 1.0);
+    }
+
+    private static long percentileMicros(long[] sortedNanos, double percentile) {
+      if (sortedNanos.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+      return TimeUnit.NANOSECONDS.toMicros(sortedNanos[Math.max(0, index)]);
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "generated=%d persisted=%d throughput=%.0f/s latency p50=%dus p99=%dus p99.9=%dus"
+              + " max=%dus",
+          generated, persisted, eventsPerSecond, p50Micros, p99Micros, p999Micros, maxMicros);
+    }
+  }
+
+  private final int threads;
+  private final long eventsPerSecond;
+  private final int httpWeight;
+  private final int restWeight;
+  private final int sshWeight;
+
+  private final Map<String, Long> pendingEvents = new ConcurrentHashMap<>();
+  private final AtomicLong generated = new AtomicLong();
+  private final List<Long> latencies = new ArrayList<>();
+  private long startNanos;
+  private long lastPersistedNanos;
+
+  /**
+   * @param threads number of threads generating events.
+   * @param eventsPerSecond target rate of events generated by all the threads together.
+   * @param httpWeight relative weight of Git over HTTP events in the mix.
+   * @param restWeight relative weight of REST API events in the mix.
+   * @param sshWeight relative weight of SSH command events in the mix.
+   */
+  public AuditLoadGenerator(
+      int threads, long eventsPerSecond, int httpWeight, int restWeight, int sshWeight) {
+    this.threads = threads;
+    this.eventsPerSecond = eventsPerSecond;
+    this.httpWeight = httpWeight;
+    this.restWeight = restWeight;
+    this.sshWeight = sshWeight;
+  }
+
+  /** Wraps the final writer, to record when each generated record reaches it. */
+  public AuditWriter persistedBy(AuditWriter writer) {
+    if (writer instanceof AuditByteWriter) {
+      AuditByteWriter byteWriter = (AuditByteWriter) writer;
+      return new AuditByteWriter() {
+        @Override
+        public void write(AuditRecordBuffer record) {
+          byteWriter.write(record);
+          persisted(record.toString());
+        }
+      };
+    }
+    return msg -> {
+      writer.write(msg);
+      persisted(msg);
+    };
+  }
+
+  /** Generates events into {@code listener} for {@code duration}. */
+  public void run(AuditListener listener, Duration duration) throws InterruptedException {
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) * threads / eventsPerSecond;
+    startNanos = System.nanoTime();
+    long endNanos = startNanos + duration.toNanos();
+
+    List<Thread> generators = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      String sessionId = String.format("%08x", t);
+      long firstNanos = startNanos + intervalNanos * t / threads;
+      Thread generator =
+          new Thread(
+              () -> {
+                for (long next = firstNanos; next < endNanos; next += intervalNanos) {
+                  long wait = next - System.nanoTime();
+                  if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                  }
+                  AuditEvent event = newEvent(sessionId);
+                  pendingEvents.put(event.uuid.uuid(), System.nanoTime());
+                  generated.incrementAndGet();
+                  listener.onAuditableAction(event);
+                }
+              },
+              "audit-load-generator-" + t);
+      generator.start();
+      generators.add(generator);
+    }
+    for (Thread generator : generators) {
+      generator.join();
+    }
+  }
+
+  /** Number of generated events whose record has not reached the final writer yet. */
+  public int pending() {
+    return pendingEvents.size();
+  }
+
+  public synchronized Result result() {
+    long[] latenciesNanos = latencies.stream().mapToLong(Long::longValue).toArray();
+    return new Result(
+        generated.get(), latenciesNanos, Math.max(1, lastPersistedNanos - startNanos));
+  }
+
+  private void persisted(String record) {
+    long now = System.nanoTime();
+    int uuidStart = record.indexOf(UUID_PREFIX);
+    if (uuidStart < 0 || uuidStart + UUID_LENGTH > record.length()) {
+      return;
+    }
+    Long createdNanos = pendingEvents.remove(record.substring(uuidStart, uuidStart + UUID_LENGTH));
+    if (createdNanos != null) {
+      synchronized (this) {
+        latencies.add(now - createdNanos);
+        lastPersistedNanos = now;
+      }
+    }
+  }
+
+  private AuditEvent newEvent(String sessionId) {
+    int pick = ThreadLocalRandom.current().nextInt(httpWeight + restWeight + sshWeight);
+    long now = System.currentTimeMillis();
+    if (pick < httpWeight) {
+      return new HttpAuditEvent(
+          sessionId,
+          newUser(AccessPath.GIT),
+          "/a/platform/frameworks/base/info/refs?service=git-upload-pack",
+          now,
+          ImmutableListMultimap.of("service", "git-upload-pack"),
+          "GET",
+          null,
+          200,
+          null);
+    }
+    if (pick < httpWeight + restWeight) {
+      return new HttpAuditEvent(
+          sessionId,
+          newUser(AccessPath.REST_API),
+          "/a/changes/",
+          now,
+          ImmutableListMultimap.of(
+              "q", "status:open project:platform/frameworks/base", "o", "CURRENT_REVISION"),
+          "GET",
+          null,
+          200,
+          "[]");
+    }
+    return new SshAuditEvent(
+        sessionId,
+        newUser(AccessPath.SSH_COMMAND),
+        "gerrit.query.--format.json.status:open",
+        now,
+        ImmutableListMultimap.of("format", "json", "q", "status:open"),
+        "0");
+  }
+
+  private static AuditUser newUser(AccessPath accessPath) {
+    AuditUser user = new AuditUser();
+    user.setUserName("load-generator");
+    user.setAccessPath(accessPath);
+    return user;
+  }
+}
@@ -0,0 +1,117 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.googlesource.gerrit.plugins.auditsl4j.AuditRingBuffer.OverflowPolicy;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditWriterToFile.DurabilityPolicy;
+import java.time.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class AuditLoadGeneratorTest implements WaitForCondition {
+  private static final Logger log = LoggerFactory.getLogger(AuditLoadGeneratorTest.class);
+  private static final Duration LOAD_DURATION = Duration.ofMillis(500);
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final AuditLoadGenerator loadGenerator = new AuditLoadGenerator(4, 4000, 1, 2, 1);
+
+  @Test
+  public void shouldPersistAllEventsWrittenSynchronously() throws Exception {
+    AuditWriterToFile file = newFileWriter();
+    LoggerAudit loggerAudit =
+        new LoggerAudit(loadGenerator.persistedBy(file), new AuditRendererToJsonStream());
+
+    loadGenerator.run(loggerAudit, LOAD_DURATION);
+    file.stop();
+
+    assertAllEventsPersisted();
+  }
+
+  @Test
+  public void shouldPersistAllEventsWrittenThroughRingBuffer() throws Exception {
+    AuditWriterToFile file = newFileWriter();
+    AuditWriterToRingBuffer ringBuffer =
+        new AuditWriterToRingBuffer(
+            loadGenerator.persistedBy(file), 1024, OverflowPolicy.BLOCK, 10000, 256);
+    ringBuffer.start();
+
+    loadGenerator.run(new LoggerAudit(ringBuffer, new AuditRendererToJsonStream()), LOAD_DURATION);
+    assertTrue(waitFor(() -> loadGenerator.pending() == 0));
+    ringBuffer.stop();
+    file.stop();
+
+    assertAllEventsPersisted();
+  }
+
+  @Test
+  public void shouldPersistAllEventsWrittenThroughStripes() throws Exception {
+    AuditWriterToFile file = newFileWriter();
+    AuditWriterToStripes stripes =
+        new AuditWriterToStripes(
+            loadGenerator.persistedBy(file), 4, 1024, OverflowPolicy.BLOCK, 10000, 10);
+    stripes.start();
+
+    loadGenerator.run(new LoggerAudit(stripes, new AuditRendererToCsv()), LOAD_DURATION);
+    assertTrue(waitFor(() -> loadGenerator.pending() == 0));
+    stripes.stop();
+    file.stop();
+
+    assertAllEventsPersisted();
+  }
+
+  @Test
+  public void shouldPersistAllEventsRenderedInBackground() throws Exception {
+    AuditWriterToFile file = newFileWriter();
+    AsyncLoggerAudit asyncLoggerAudit =
+        new AsyncLoggerAudit(
+            new LoggerAudit(loadGenerator.persistedBy(file), new AuditRendererToJson()),
+            2,
+            1024,
+            OverflowPolicy.BLOCK,
+            10000);
+    asyncLoggerAudit.start();
+
+    loadGenerator.run(asyncLoggerAudit, LOAD_DURATION);
+    assertTrue(waitFor(() -> loadGenerator.pending() == 0));
+    asyncLoggerAudit.stop();
+    file.stop();
+
+    assertAllEventsPersisted();
+  }
+
+  private AuditWriterToFile newFileWriter() throws Exception {
+    return new AuditWriterToFile(
+        tempFolder.newFolder().toPath().resolve("audit_log"),
+        DurabilityPolicy.NEVER,
+        1000,
+        1000,
+        AuditMetrics.DISABLED);
+  }
+
+  private void assertAllEventsPersisted() {
+    AuditLoadGenerator.Result result = loadGenerator.result();
+    log.info("{}", result);
+    assertTrue(result.generated > 0);
+    assertEquals(result.generated, result.persisted);
+    assertEquals(0, loadGenerator.pending());
+  }
+}
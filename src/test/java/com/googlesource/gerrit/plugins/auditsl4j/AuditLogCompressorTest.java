@@ -0,0 +1,194 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import com.google.gerrit.metrics.DisabledMetricMaker;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AuditLogCompressorTest {
+  private static final int BLOCK_SIZE = 4096;
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void shouldCompressRolledLogsIntoMembersEndingAtRecordBoundaries() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    byte[] content = auditLog(1000);
+    Path rolled = writeRolled(dir.resolve("audit_log.2026-10-16"), content);
+
+    AuditLogCompressor compressor = newCompressor(dir);
+    compressor.compressRolledFiles();
+
+    assertFalse(Files.exists(rolled));
+    byte[] compressed = Files.readAllBytes(dir.resolve("audit_log.2026-10-16.gz"));
+    assertArrayEquals(content, gunzip(compressed));
+    assertTrue(compressor.compressionRatio() < 1.0);
+
+    int members = 0;
+    for (int i = 0; i + 2 < compressed.length; i++) {
+      if ((compressed[i] & 0xff) == 0x1f
+          && (compressed[i + 1] & 0xff) == 0x8b
+          && compressed[i + 2] == 8) {
+        members++;
+      }
+    }
+    assertTrue(members >= content.length / BLOCK_SIZE);
+  }
+
+  @Test
+  public void shouldNotCompressCurrentLogs() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    Path current = writeRolled(dir.resolve("audit_log"), auditLog(10));
+    Path oldSegment = writeRolled(dir.resolve("audit_log.2026-10-17.00000001.seg"), auditLog(10));
+    Path lastSegment = writeRolled(dir.resolve("audit_log.2026-10-17.00000002.seg"), auditLog(10));
+
+    newCompressor(dir).compressRolledFiles();
+
+    assertTrue(Files.exists(current));
+    assertTrue(Files.exists(lastSegment));
+    assertFalse(Files.exists(oldSegment));
+    assertTrue(Files.exists(dir.resolve("audit_log.2026-10-17.00000001.seg.gz")));
+    try (Stream<Path> files = Files.list(dir)) {
+      assertEquals(3, files.count());
+    }
+  }
+
+  @Test
+  public void shouldNotCompressTransformedLogs() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    Path transformed = writeRolled(dir.resolve("audit_log.2026-10-16.log"), auditLog(10));
+    Path part = writeRolled(dir.resolve("audit_log.2026-10-16.log.httpd.part"), auditLog(10));
+
+    newCompressor(dir).compressRolledFiles();
+
+    assertTrue(Files.exists(transformed));
+    assertTrue(Files.exists(part));
+    try (Stream<Path> files = Files.list(dir)) {
+      assertEquals(2, files.count());
+    }
+  }
+
+  @Test
+  public void shouldNotCompressRecentlyModifiedLogs() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    Path rolled = Files.write(dir.resolve("audit_log.2026-10-16"), auditLog(10));
+
+    newCompressor(dir).compressRolledFiles();
+
+    assertTrue(Files.exists(rolled));
+    assertFalse(Files.exists(dir.resolve("audit_log.2026-10-16.gz")));
+  }
+
+  @Test
+  public void shouldDeleteRolledLogsAlreadyCompressed() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    byte[] content = auditLog(100);
+    Path rolled = writeRolled(dir.resolve("audit_log.2026-10-16"), content);
+    Path compressed = dir.resolve("audit_log.2026-10-16.gz");
+    Files.write(compressed, gzip(content));
+    FileTime compressedAt = Files.getLastModifiedTime(compressed);
+
+    newCompressor(dir).compressRolledFiles();
+
+    assertFalse(Files.exists(rolled));
+    assertEquals(compressedAt, Files.getLastModifiedTime(compressed));
+    assertArrayEquals(content, gunzip(Files.readAllBytes(compressed)));
+  }
+
+  @Test
+  public void shouldCompressAgainWhenTheCompressedLogIsIncomplete() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    byte[] content = auditLog(100);
+    Path rolled = writeRolled(dir.resolve("audit_log.2026-10-16"), content);
+    Path compressed = dir.resolve("audit_log.2026-10-16.gz");
+    byte[] full = gzip(content);
+    Files.write(compressed, Arrays.copyOf(full, full.length / 2));
+    Path truncatedMember = writeRolled(dir.resolve("audit_log.2026-10-15"), content);
+    Files.write(
+        dir.resolve("audit_log.2026-10-15.gz"), gzip(Arrays.copyOf(content, content.length / 2)));
+    Path empty = writeRolled(dir.resolve("audit_log.2026-10-14"), content);
+    Files.write(dir.resolve("audit_log.2026-10-14.gz"), new byte[0]);
+
+    newCompressor(dir).compressRolledFiles();
+
+    for (String name : Arrays.asList("audit_log.2026-10-14", "audit_log.2026-10-15")) {
+      assertArrayEquals(content, gunzip(Files.readAllBytes(dir.resolve(name + ".gz"))));
+    }
+    assertArrayEquals(content, gunzip(Files.readAllBytes(compressed)));
+    assertFalse(Files.exists(rolled));
+    assertFalse(Files.exists(truncatedMember));
+    assertFalse(Files.exists(empty));
+  }
+
+  private static Path writeRolled(Path file, byte[] content) throws Exception {
+    Files.write(file, content);
+    Files.setLastModifiedTime(
+        file, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1)));
+    return file;
+  }
+
+  private static AuditLogCompressor newCompressor(Path dir) {
+    return new AuditLogCompressor(dir, "audit_log", BLOCK_SIZE, 0, 1000, new DisabledMetricMaker());
+  }
+
+  private static byte[] auditLog(int records) {
+    StringBuilder log = new StringBuilder();
+    for (int i = 0; i < records; i++) {
+      log.append("{\"type\":\"HttpAuditEvent\",\"event\":{\"session_id\":\"")
+          .append(i % 7)
+          .append("\",\"what\":\"/a/changes/")
+          .append(i)
+          .append("\"}}\n");
+    }
+    return log.toString().getBytes(UTF_8);
+  }
+
+  private static byte[] gzip(byte[] content) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (OutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(content);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] gunzip(byte[] compressed) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      ByteStreams.copy(in, out);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,121 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AuditLogDeduplicatorTest {
+  private static final Function<String, Optional<String>> KEY_OF =
+      record -> {
+        int end = record.indexOf('|');
+        return end < 0 ? Optional.empty() : Optional.of(record.substring(0, end));
+      };
+
+  private Path dir;
+  private Path auditLog;
+  private Path part;
+
+  @Before
+  public void setUp() throws Exception {
+    dir = Files.createTempDirectory("audit-dedupe");
+    auditLog = dir.resolve("audit_log.2019-01-23.log");
+    part = dir.resolve("audit_log.2019-01-23.log.httpd_log.part");
+  }
+
+  @Test
+  public void skipRecordsAlreadyInAuditLog() throws Exception {
+    Files.write(auditLog, "header\n10 a|live\n11 b|live\n12 c|live\n".getBytes(UTF_8));
+    Files.write(part, "9 z|new\n10 a|new\n11 x|new\n12 c|new\n13 d|new\n".getBytes(UTF_8));
+
+    try (AuditLogDeduplicator deduplicator = load(Files.size(auditLog), 1024)) {
+      assertEquals(3, deduplicator.existingRecords());
+      assertEquals(bits(1, 3), deduplicator.findDuplicates(part, KEY_OF));
+    }
+  }
+
+  @Test
+  public void matchEachExistingRecordOnce() throws Exception {
+    Files.write(auditLog, "10 a|live\n".getBytes(UTF_8));
+    Files.write(part, "10 a|first\n10 a|second\n".getBytes(UTF_8));
+
+    try (AuditLogDeduplicator deduplicator = load(Files.size(auditLog), 1024)) {
+      assertEquals(bits(0), deduplicator.findDuplicates(part, KEY_OF));
+    }
+  }
+
+  @Test
+  public void ignoreRecordsAfterLength() throws Exception {
+    Files.write(auditLog, "10 a|live\n11 b|appended\n".getBytes(UTF_8));
+    Files.write(part, "10 a|new\n11 b|new\n".getBytes(UTF_8));
+
+    try (AuditLogDeduplicator deduplicator = load("10 a|live\n".length(), 1024)) {
+      assertEquals(bits(0), deduplicator.findDuplicates(part, KEY_OF));
+    }
+  }
+
+  @Test
+  public void checkKeysPartitionByPartition() throws Exception {
+    StringBuilder existing = new StringBuilder();
+    StringBuilder transformed = new StringBuilder();
+    BitSet expected = new BitSet();
+    for (int i = 0; i < 5000; i++) {
+      if (i % 2 == 0) {
+        existing.append(i).append(" /a/changes/|live\n");
+        expected.set(i);
+      }
+      transformed.append(i).append(" /a/changes/|new\n");
+    }
+    Files.write(auditLog, existing.toString().getBytes(UTF_8));
+    Files.write(part, transformed.toString().getBytes(UTF_8));
+
+    try (AuditLogDeduplicator deduplicator = load(Files.size(auditLog), 4096)) {
+      assertEquals(expected, deduplicator.findDuplicates(part, KEY_OF));
+    }
+  }
+
+  @Test
+  public void removeSpilledKeysOnClose() throws Exception {
+    Files.write(auditLog, "10 a|live\n".getBytes(UTF_8));
+
+    load(Files.size(auditLog), 1024).close();
+
+    try (Stream<Path> files = Files.list(dir)) {
+      assertFalse(files.anyMatch(f -> !f.equals(auditLog)));
+    }
+  }
+
+  private AuditLogDeduplicator load(long length, long partitionBytes) throws Exception {
+    return AuditLogDeduplicator.load(auditLog, length, KEY_OF, partitionBytes);
+  }
+
+  private static BitSet bits(int... indexes) {
+    BitSet bits = new BitSet();
+    for (int index : indexes) {
+      bits.set(index);
+    }
+    return bits;
+  }
+}
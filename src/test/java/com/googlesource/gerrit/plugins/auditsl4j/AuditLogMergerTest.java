@@ -0,0 +1,130 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Optional;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AuditLogMergerTest {
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void mergePartsInTimeOrder() throws Exception {
+    Path http = writePart("1000 http-a", "3000 http-b", "3000 http-c", "6000 http-d");
+    Path ssh = writePart("2000 ssh-a", "3000 ssh-b", "5000 ssh-c");
+    StringWriter output = new StringWriter();
+
+    AuditLogMerger merger = new AuditLogMerger(0, 100);
+    merger.merge(Arrays.asList(http, ssh), Arrays.asList(new BitSet(), new BitSet()), output);
+
+    assertEquals("http-a\nssh-a\nhttp-b\nhttp-c\nssh-b\nssh-c\nhttp-d\n", output.toString());
+    assertEquals(7, merger.recordsWritten());
+    assertEquals(output.toString().length(), merger.charsWritten());
+    assertEquals(0, merger.late());
+  }
+
+  @Test
+  public void reorderRecordsWithinTheWindow() throws Exception {
+    Path http = writePart("1000 http-a", "4000 http-c", "2000 http-b", "9000 http-d");
+    Path ssh = writePart("3000 ssh-a", "8000 ssh-b");
+    StringWriter output = new StringWriter();
+
+    AuditLogMerger merger = new AuditLogMerger(5000, 100);
+    merger.merge(Arrays.asList(http, ssh), Arrays.asList(new BitSet(), new BitSet()), output);
+
+    assertEquals("http-a\nhttp-b\nssh-a\nhttp-c\nssh-b\nhttp-d\n", output.toString());
+    assertEquals(0, merger.late());
+  }
+
+  @Test
+  public void countRecordsLaterThanTheWindow() throws Exception {
+    Path http = writePart("1000 http-a", "9000 http-c", "15000 http-d", "2000 http-b");
+    StringWriter output = new StringWriter();
+
+    AuditLogMerger merger = new AuditLogMerger(5000, 100);
+    merger.merge(Arrays.asList(http), Arrays.asList(new BitSet()), output);
+
+    assertEquals("http-a\nhttp-c\nhttp-b\nhttp-d\n", output.toString());
+    assertEquals(1, merger.late());
+  }
+
+  @Test
+  public void writeOldestRecordsEarlyWhenTooManyAreHeldBack() throws Exception {
+    Path http = writePart("1000 http-a", "2000 http-b", "3000 http-c", "500 http-late");
+    StringWriter output = new StringWriter();
+
+    AuditLogMerger merger = new AuditLogMerger(60000, 2);
+    merger.merge(Arrays.asList(http), Arrays.asList(new BitSet()), output);
+
+    assertEquals("http-a\nhttp-late\nhttp-b\nhttp-c\n", output.toString());
+    assertEquals(1, merger.late());
+  }
+
+  @Test
+  public void skipLines() throws Exception {
+    Path http = writePart("1000 http-a", "2000 http-b", "3000 http-c");
+    Path ssh = writePart("1500 ssh-a", "2500 ssh-b");
+    BitSet httpSkipped = new BitSet();
+    httpSkipped.set(1);
+    BitSet sshSkipped = new BitSet();
+    sshSkipped.set(0);
+    StringWriter output = new StringWriter();
+
+    new AuditLogMerger(0, 100)
+        .merge(Arrays.asList(http, ssh), Arrays.asList(httpSkipped, sshSkipped), output);
+
+    assertEquals("http-a\nssh-b\nhttp-c\n", output.toString());
+  }
+
+  @Test
+  public void failOnLineWithoutTime() throws Exception {
+    Path http = writePart("1000 http-a", "http-b");
+
+    try {
+      new AuditLogMerger(0, 100)
+          .merge(Arrays.asList(http), Arrays.asList(new BitSet()), new StringWriter());
+      fail("Expected the line without time to be rejected");
+    } catch (IOException e) {
+      assertEquals("Invalid audit record at line 2 of a part file", e.getMessage());
+    }
+  }
+
+  @Test
+  public void partLineOfRecord() {
+    String line = AuditLogMerger.partLine(1548244803000L, "{\"type\": \"a b\"}");
+
+    assertEquals("1548244803000 {\"type\": \"a b\"}", line);
+    assertEquals(Optional.of("{\"type\": \"a b\"}"), AuditLogMerger.recordOf(line));
+    assertEquals(Optional.empty(), AuditLogMerger.recordOf("record"));
+  }
+
+  private Path writePart(String... lines) throws IOException {
+    Path part = tempFolder.newFile().toPath();
+    Files.write(part, Arrays.asList(lines), UTF_8);
+    return part;
+  }
+}
@@ -0,0 +1,66 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.google.gerrit.server.AccessPath;
+import com.google.gerrit.server.audit.SshAuditEvent;
+import org.junit.Test;
+
+public class AuditRecordBufferTest {
+
+  @Test
+  public void shouldEncodeLikeStringGetBytes() {
+    String[] values = {
+      "", "ascii only", "caf\u00e9", "\u20ac 100", "emoji \ud83d\ude00", "broken \ud83d", "\ude00x"
+    };
+    AuditRecordBuffer buffer = new AuditRecordBuffer(4);
+    for (String value : values) {
+      buffer.reset().append(value);
+      assertArrayEquals(value.getBytes(UTF_8), buffer.toByteArray());
+    }
+  }
+
+  @Test
+  public void shouldEncodeCharByChar() {
+    String value = "emoji \ud83d\ude00 caf\u00e9";
+    AuditRecordBuffer buffer = new AuditRecordBuffer(1);
+    for (int i = 0; i < value.length(); i++) {
+      buffer.append(value.charAt(i));
+    }
+    assertEquals(value, buffer.toString());
+  }
+
+  @Test
+  public void renderersShouldEncodeTheirStringOutput() {
+    AuditUser user = new AuditUser();
+    user.setUserName("j\u00f6rg");
+    user.setAccessPath(AccessPath.SSH_COMMAND);
+    SshAuditEvent event =
+        new SshAuditEvent("70e3031f", user, "gerrit.query \u20ac", 1548243866665L, null, "0");
+
+    AuditFormatRenderer[] renderers = {
+      new AuditRendererToCsv(), new AuditRendererToJson(), new AuditRendererToJsonStream()
+    };
+    for (AuditFormatRenderer renderer : renderers) {
+      AuditRecordBuffer buffer = new AuditRecordBuffer();
+      renderer.render(event, buffer);
+      assertEquals(renderer.render(event), buffer.toString());
+    }
+  }
+}
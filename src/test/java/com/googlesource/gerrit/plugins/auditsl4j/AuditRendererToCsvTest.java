@@ -0,0 +1,97 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.gerrit.server.AccessPath;
+import com.google.gerrit.server.audit.SshAuditEvent;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AuditRendererToCsvTest {
+  private final SimpleDateFormat dateFmt = new SimpleDateFormat("yyyy/MM/dd hh:mm:ss.SSSS");
+
+  @Test
+  public void shouldFormatTimestampsLikeSimpleDateFormat() {
+    long[] timestamps = {0L, 5L, 999L, 1548243866665L, 1548243866007L, 1548243867000L, -1L};
+    for (long when : timestamps) {
+      assertEquals(dateFmt.format(new Date(when)), AuditRendererToCsv.getFormattedTS(when));
+    }
+  }
+
+  @Test
+  public void shouldRenderAllColumns() {
+    AuditUser user = new AuditUser();
+    user.setUserName("jenkins");
+    user.setAccessPath(AccessPath.SSH_COMMAND);
+    SshAuditEvent event =
+        new SshAuditEvent(
+            "70e3031f",
+            user,
+            "gerrit.query",
+            1548243866665L,
+            ImmutableListMultimap.of("format", "json", "q", "status:open", "q", "is:draft"),
+            "0");
+
+    assertEquals(
+        String.format(
+            "%s | %s | 70e3031f | %s | SSH | gerrit.query | [format=json,q=[status:open,is:draft]]"
+                + " | 0 | %s | %d",
+            event.uuid.uuid(),
+            dateFmt.format(new Date(event.when)),
+            user,
+            dateFmt.format(new Date(event.timeAtStart)),
+            event.elapsed),
+        new AuditRendererToCsv().render(event));
+  }
+
+  @Test
+  public void shouldNotExtractEventKey() {
+    AuditUser user = new AuditUser();
+    user.setUserName("jenkins");
+    user.setAccessPath(AccessPath.SSH_COMMAND);
+    SshAuditEvent event =
+        new SshAuditEvent("70e3031f", user, "gerrit.query", 1548243866665L, null, "0");
+    AuditRendererToCsv renderer = new AuditRendererToCsv();
+
+    assertEquals(Optional.empty(), renderer.eventKey(renderer.render(event)));
+    assertEquals(Optional.empty(), renderer.eventKey(renderer.headers().get()));
+  }
+
+  @Test
+  public void shouldNotMatchEventsTwelveHoursApart() {
+    AuditUser user = new AuditUser();
+    user.setUserName("jenkins");
+    user.setAccessPath(AccessPath.SSH_COMMAND);
+    long when = 1548243866665L;
+    SshAuditEvent morning = new SshAuditEvent("70e3031f", user, "gerrit.query", when, null, "0");
+    SshAuditEvent evening =
+        new SshAuditEvent(
+            "70e3031f", user, "gerrit.query", when + TimeUnit.HOURS.toMillis(12), null, "0");
+    AuditRendererToCsv renderer = new AuditRendererToCsv();
+    String morningRecord = renderer.render(morning);
+    String eveningRecord = renderer.render(evening);
+
+    assertEquals(morningRecord.split(" \\| ")[1], eveningRecord.split(" \\| ")[1]);
+    Optional<String> morningKey = renderer.eventKey(morningRecord);
+    assertFalse(morningKey.isPresent() && morningKey.equals(renderer.eventKey(eveningRecord)));
+  }
+}
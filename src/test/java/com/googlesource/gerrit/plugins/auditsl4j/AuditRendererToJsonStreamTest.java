@@ -0,0 +1,126 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.gerrit.server.AccessPath;
+import com.google.gerrit.server.AuditEvent;
+import com.google.gerrit.server.audit.HttpAuditEvent;
+import com.google.gerrit.server.audit.SshAuditEvent;
+import java.util.Arrays;
+import java.util.Optional;
+import org.junit.Test;
+
+public class AuditRendererToJsonStreamTest {
+  private final AuditRendererToJson gsonRenderer = new AuditRendererToJson();
+  private final AuditRendererToJsonStream streamRenderer = new AuditRendererToJsonStream();
+
+  @Test
+  public void shouldRenderHttpAuditEventLikeGson() {
+    HttpAuditEvent event =
+        new HttpAuditEvent(
+            "1234567890",
+            auditUser("admin", AccessPath.REST_API),
+            "/changes/?q=status:open&n=25",
+            1548243866665L,
+            ImmutableListMultimap.of("q", "status:open", "n", "25"),
+            "GET",
+            null,
+            200,
+            "<result>");
+
+    assertRenderedLikeGson(event);
+    assertEquals(
+        gsonRenderer.render(event, TransformableAuditLogType.ExtendedHttpAuditEvent),
+        streamRenderer.render(event, TransformableAuditLogType.ExtendedHttpAuditEvent));
+  }
+
+  @Test
+  public void shouldRenderSshAuditEventLikeGson() {
+    SshAuditEvent event =
+        new SshAuditEvent(
+            "70e3031f",
+            auditUser("jenkins", AccessPath.SSH_COMMAND),
+            "gerrit.review.426428,1.--message.Build \"Failed\"\t\u2028",
+            1548243866665L,
+            null,
+            1);
+
+    assertRenderedLikeGson(event);
+  }
+
+  @Test
+  public void shouldRenderPlainAuditEventLikeGson() {
+    AuditEvent event = new AuditEvent(null, null, "LOGIN", 1548243866665L, null, null);
+
+    assertRenderedLikeGson(event);
+  }
+
+  @Test
+  public void shouldRenderParamsLikeGson() {
+    ListMultimap<String, Object> params = ArrayListMultimap.create();
+    params.put("q", "status:open");
+    params.put("q", 25);
+    params.put("o", null);
+
+    assertRenderedLikeGson(new AuditEvent(null, null, "LOGIN", 1548243866665L, params, null));
+    assertRenderedLikeGson(
+        new AuditEvent(
+            null, null, "LOGIN", 1548243866665L, LinkedListMultimap.create(params), null));
+  }
+
+  @Test
+  public void shouldRenderCommonResultsLikeGson() {
+    for (Object result :
+        Arrays.asList(
+            "0", 0, 200L, true, 1.5, Arrays.asList("a", "b"), ImmutableMap.of("a", 1), "")) {
+      assertRenderedLikeGson(new AuditEvent(null, null, "LOGIN", 1548243866665L, null, result));
+    }
+  }
+
+  @Test
+  public void shouldExtractEventKey() {
+    SshAuditEvent event =
+        new SshAuditEvent(
+            "70e3031f",
+            auditUser("jenkins", AccessPath.SSH_COMMAND),
+            "gerrit.query.\"status:open\"",
+            1548243866665L,
+            null,
+            0);
+
+    assertEquals(
+        Optional.of("1548243866 gerrit.query.\"status:open\""),
+        streamRenderer.eventKey(streamRenderer.render(event)));
+    assertEquals(Optional.empty(), streamRenderer.eventKey("not a record"));
+  }
+
+  private void assertRenderedLikeGson(AuditEvent event) {
+    assertEquals(gsonRenderer.render(event), streamRenderer.render(event));
+  }
+
+  private static AuditUser auditUser(String username, AccessPath accessPath) {
+    AuditUser user = new AuditUser();
+    user.setUserName(username);
+    user.setAccessPath(accessPath);
+    return user;
+  }
+}
@@ -0,0 +1,164 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.AsyncAppender;
+import org.apache.log4j.spi.LoggingEvent;
+import org.junit.After;
+import org.junit.Test;
+
+public class AuditWriterToAsyncAppenderTest implements WaitForCondition {
+  private static final int BUFFER_SIZE = 4;
+
+  private final CountDownLatch released = new CountDownLatch(1);
+  private final GatedAppender gated = new GatedAppender();
+  private final AsyncAppender asyncAppender = new AsyncAppender();
+
+  @After
+  public void tearDown() {
+    released.countDown();
+    asyncAppender.close();
+  }
+
+  @Test
+  public void shouldDiscardRecordsWhenBufferIsFullAndNotBlocking() throws Exception {
+    asyncAppender.addAppender(gated);
+    AuditWriterToAsyncAppender writer =
+        new AuditWriterToAsyncAppender(asyncAppender, BUFFER_SIZE, false, AuditMetrics.DISABLED);
+
+    int records = 100;
+    Thread producer =
+        new Thread(
+            () -> {
+              for (int i = 0; i < records; i++) {
+                writer.write("record-" + i);
+              }
+            });
+    producer.start();
+    producer.join(TimeUnit.SECONDS.toMillis(5));
+
+    assertFalse(producer.isAlive());
+    assertTrue(writer.discarded() > 0);
+    assertEquals(writer.discarded(), writer.saturations());
+
+    released.countDown();
+    long written = records - writer.discarded();
+    assertTrue(waitFor(() -> gated.messages.size() == written));
+    assertEquals(0, writer.backlog());
+    assertEquals("record-0", gated.messages.get(0));
+  }
+
+  @Test
+  public void shouldNeverBlockConcurrentWritersWhenNotBlocking() throws Exception {
+    asyncAppender.addAppender(gated);
+    AuditWriterToAsyncAppender writer =
+        new AuditWriterToAsyncAppender(asyncAppender, BUFFER_SIZE, false, AuditMetrics.DISABLED);
+
+    int producers = 8;
+    int recordsPerProducer = 100;
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      Thread producer =
+          new Thread(
+              () -> {
+                for (int i = 0; i < recordsPerProducer; i++) {
+                  writer.write("record-" + i);
+                }
+              });
+      producer.start();
+      threads.add(producer);
+    }
+    for (Thread producer : threads) {
+      producer.join(TimeUnit.SECONDS.toMillis(5));
+      assertFalse(producer.isAlive());
+    }
+
+    assertEquals(BUFFER_SIZE, writer.backlog());
+    assertEquals(producers * recordsPerProducer - BUFFER_SIZE, writer.discarded());
+
+    released.countDown();
+    assertTrue(waitFor(() -> gated.messages.size() == BUFFER_SIZE));
+    assertTrue(waitFor(() -> writer.backlog() == 0));
+  }
+
+  @Test
+  public void shouldDeliverAllRecordsWhenBlocking() throws Exception {
+    released.countDown();
+    asyncAppender.addAppender(gated);
+    AuditWriterToAsyncAppender writer =
+        new AuditWriterToAsyncAppender(asyncAppender, BUFFER_SIZE, true, AuditMetrics.DISABLED);
+
+    int records = 1000;
+    for (int i = 0; i < records; i++) {
+      writer.write("record-" + i);
+    }
+
+    assertTrue(waitFor(() -> gated.messages.size() == records));
+    assertEquals(0, writer.discarded());
+    for (int i = 0; i < records; i++) {
+      assertEquals("record-" + i, gated.messages.get(i));
+    }
+  }
+
+  @Test
+  public void shouldUseDefaultBufferSizeOfAppenderWhenNotConfigured() throws Exception {
+    released.countDown();
+    asyncAppender.addAppender(gated);
+    AuditWriterToAsyncAppender writer =
+        new AuditWriterToAsyncAppender(asyncAppender, 0, true, AuditMetrics.DISABLED);
+
+    Thread producer = new Thread(() -> writer.write("record"));
+    producer.setDaemon(true);
+    producer.start();
+    producer.join(TimeUnit.SECONDS.toMillis(5));
+
+    assertFalse(producer.isAlive());
+    assertTrue(waitFor(() -> gated.messages.size() == 1));
+    assertTrue(waitFor(() -> writer.backlog() == 0));
+  }
+
+  /** Collects the dispatched records, once the test lets the dispatcher through. */
+  private class GatedAppender extends AppenderSkeleton {
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected void append(LoggingEvent event) {
+      try {
+        released.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      messages.add(event.getRenderedMessage());
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public boolean requiresLayout() {
+      return false;
+    }
+  }
+}
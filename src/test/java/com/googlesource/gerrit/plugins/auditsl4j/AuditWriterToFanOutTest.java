@@ -0,0 +1,137 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gerrit.server.AuditEvent;
+import com.google.gerrit.server.audit.SshAuditEvent;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditRingBuffer.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.After;
+import org.junit.Test;
+
+public class AuditWriterToFanOutTest implements WaitForCondition {
+  private final CountDownLatch released = new CountDownLatch(1);
+  private final AuditWriterToStringList fastSink = new AuditWriterToStringList();
+  private final AuditWriterToStringList slowSink =
+      new AuditWriterToStringList() {
+        @Override
+        public void write(String msg) {
+          try {
+            released.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          super.write(msg);
+        }
+      };
+  private AuditWriterToFanOut writer;
+
+  @After
+  public void tearDown() {
+    released.countDown();
+    writer.stop();
+  }
+
+  @Test
+  public void shouldWriteAllRecordsToEverySink() throws Exception {
+    released.countDown();
+    writer = newWriter(OverflowPolicy.BLOCK);
+    writer.start();
+
+    for (int i = 0; i < 100; i++) {
+      writer.write("record-" + i);
+    }
+
+    assertTrue(waitFor(() -> fastSink.strings.size() == 100 && slowSink.strings.size() == 100));
+    for (int i = 0; i < 100; i++) {
+      assertEquals("record-" + i, fastSink.strings.get(i));
+      assertEquals("record-" + i, slowSink.strings.get(i));
+    }
+  }
+
+  @Test
+  public void shouldNotStallOtherSinksWhenOneSinkIsSlow() throws Exception {
+    writer = newWriter(OverflowPolicy.DROP_NEWEST);
+    writer.start();
+
+    for (int i = 0; i < 100; i++) {
+      writer.write("record-" + i);
+      if (i % 10 == 9) {
+        // Let the fast sink keep up, its queue is smaller than the records written
+        assertTrue(waitFor(() -> writer.queue(AuditWriterTypes.FILE).queued() == 0));
+      }
+    }
+
+    assertTrue(waitFor(() -> fastSink.strings.size() == 100));
+    AuditWriterToRingBuffer slowQueue = writer.queue(AuditWriterTypes.LOGGER);
+    assertEquals(0, writer.queue(AuditWriterTypes.FILE).dropped());
+    assertTrue(slowQueue.dropped() > 0);
+    assertTrue(slowQueue.lagMs() >= 0);
+    assertTrue(slowSink.strings.isEmpty());
+
+    released.countDown();
+    assertTrue(waitFor(() -> slowSink.strings.size() == 100 - slowQueue.dropped()));
+  }
+
+  @Test
+  public void shouldPassTheAuditEventToTheSinks() throws Exception {
+    List<Long> whens = Collections.synchronizedList(new ArrayList<>());
+    AuditByteWriter eventSink =
+        new AuditByteWriter() {
+          @Override
+          public void write(AuditRecordBuffer record) {
+            whens.add(-1L);
+          }
+
+          @Override
+          public void write(AuditEvent auditEvent, AuditRecordBuffer record) {
+            whens.add(auditEvent.when);
+          }
+        };
+    writer =
+        new AuditWriterToFanOut(
+            ImmutableMap.of(AuditWriterTypes.SYSLOG, eventSink),
+            16,
+            OverflowPolicy.BLOCK,
+            10000,
+            4);
+    writer.start();
+
+    writer.write(
+        new SshAuditEvent("session", new AuditUser(), "action", 1000L, null, null),
+        new AuditRecordBuffer().append("record-0"));
+    writer.write(new AuditRecordBuffer().append("record-1"));
+
+    assertTrue(waitFor(() -> whens.size() == 2));
+    assertEquals(Arrays.asList(1000L, -1L), whens);
+  }
+
+  private AuditWriterToFanOut newWriter(OverflowPolicy overflowPolicy) {
+    return new AuditWriterToFanOut(
+        ImmutableMap.of(AuditWriterTypes.FILE, fastSink, AuditWriterTypes.LOGGER, slowSink),
+        16,
+        overflowPolicy,
+        10000,
+        4);
+  }
+}
@@ -0,0 +1,114 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.googlesource.gerrit.plugins.auditsl4j.AuditWriterToFile.DurabilityPolicy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AuditWriterToFileTest {
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void shouldAppendAllRecordsOfConcurrentWriters() throws Exception {
+    int writers = 8;
+    int recordsPerWriter = 2000;
+    Path path = tempFolder.getRoot().toPath().resolve("audit_log");
+    AuditWriterToFile writer =
+        new AuditWriterToFile(path, DurabilityPolicy.BATCH, 1000, 1000, AuditMetrics.DISABLED);
+    writer.start();
+
+    List<Thread> threads = new ArrayList<>();
+    for (int w = 0; w < writers; w++) {
+      String writerId = "writer" + w;
+      Thread thread =
+          new Thread(
+              () -> {
+                for (int i = 0; i < recordsPerWriter; i++) {
+                  writer.write(writerId + " record " + i);
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    writer.stop();
+
+    List<String> lines = Files.readAllLines(path, UTF_8);
+    assertEquals(writers * recordsPerWriter, lines.size());
+    assertEquals(writers * recordsPerWriter, new HashSet<>(lines).size());
+    assertTrue(writer.commits() <= lines.size());
+    assertTrue(writer.fsyncs() <= writer.commits());
+  }
+
+  @Test
+  public void shouldFsyncEveryNRecords() throws Exception {
+    Path path = tempFolder.getRoot().toPath().resolve("audit_log");
+    AuditWriterToFile writer =
+        new AuditWriterToFile(path, DurabilityPolicy.RECORDS, 1000, 3, AuditMetrics.DISABLED);
+    writer.start();
+    for (int i = 0; i < 7; i++) {
+      writer.write("record " + i);
+    }
+    assertEquals(7, writer.commits());
+    assertEquals(2, writer.fsyncs());
+
+    writer.stop();
+    assertEquals(3, writer.fsyncs());
+  }
+
+  @Test
+  public void shouldNeverFsync() throws Exception {
+    Path path = tempFolder.getRoot().toPath().resolve("audit_log");
+    Files.write(path, "existing\n".getBytes(UTF_8));
+    AuditWriterToFile writer =
+        new AuditWriterToFile(path, DurabilityPolicy.NEVER, 1000, 1, AuditMetrics.DISABLED);
+    writer.start();
+    writer.write("record");
+    writer.stop();
+
+    assertEquals(0, writer.fsyncs());
+    assertEquals(Arrays.asList("existing", "record"), Files.readAllLines(path, UTF_8));
+  }
+
+  @Test
+  public void shouldCountRecordsThatCannotBeWrittenAsDropped() throws Exception {
+    Path path = tempFolder.getRoot().toPath().resolve("audit_log");
+    AuditWriterToFile writer =
+        new AuditWriterToFile(path, DurabilityPolicy.NEVER, 1000, 1, AuditMetrics.DISABLED);
+    writer.start();
+    writer.write("record");
+    writer.stop();
+
+    writer.write("late record");
+    writer.write("other late record");
+
+    assertEquals(2, writer.dropped());
+    assertEquals(Arrays.asList("record"), Files.readAllLines(path, UTF_8));
+  }
+}
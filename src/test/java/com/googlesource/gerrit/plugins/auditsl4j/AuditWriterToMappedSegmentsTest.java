@@ -0,0 +1,165 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import com.googlesource.gerrit.plugins.auditsl4j.AuditWriterToFile.DurabilityPolicy;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditWriterToMappedSegments.RollPeriod;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AuditWriterToMappedSegmentsTest {
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final AtomicLong now =
+      new AtomicLong(
+          LocalDateTime.of(2026, 10, 17, 23, 59)
+              .atZone(ZoneId.systemDefault())
+              .toInstant()
+              .toEpochMilli());
+
+  @Test
+  public void shouldRollWhenSegmentIsFull() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    AuditWriterToMappedSegments writer = newWriter(dir, 64, RollPeriod.DAY);
+    List<String> records = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      String record = "record " + i;
+      records.add(record);
+      writer.write(record);
+    }
+    writer.stop();
+
+    assertEquals(4, writer.segments());
+    assertEquals(
+        segmentNames("2026-10-17", 4),
+        segments(dir).stream().map(p -> p.getFileName().toString()).collect(Collectors.toList()));
+    assertEquals(records, readAll(dir));
+  }
+
+  @Test
+  public void shouldRollWhenDayChanges() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    AuditWriterToMappedSegments writer = newWriter(dir, 4096, RollPeriod.DAY);
+    writer.write("before midnight");
+    now.addAndGet(60 * 1000);
+    writer.write("after midnight");
+    writer.stop();
+
+    List<Path> segments = segments(dir);
+    assertEquals(2, segments.size());
+    assertEquals("audit_log.2026-10-17.00000001.seg", segments.get(0).getFileName().toString());
+    assertEquals("audit_log.2026-10-18.00000001.seg", segments.get(1).getFileName().toString());
+    assertEquals("before midnight\n", new String(Files.readAllBytes(segments.get(0)), UTF_8));
+    assertEquals("after midnight\n", new String(Files.readAllBytes(segments.get(1)), UTF_8));
+  }
+
+  @Test
+  public void shouldNotOverwriteExistingSegments() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    Files.write(dir.resolve("audit_log.2026-10-17-23.0001.seg"), "existing\n".getBytes(UTF_8));
+    AuditWriterToMappedSegments writer = newWriter(dir, 4096, RollPeriod.HOUR);
+    writer.write("new");
+    writer.stop();
+
+    assertEquals(
+        "new\n",
+        new String(
+            Files.readAllBytes(dir.resolve("audit_log.2026-10-17-23.00000002.seg")), UTF_8));
+  }
+
+  @Test
+  public void shouldTruncateLastSegmentAfterItsLastRecordOnStart() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    Path previous = dir.resolve("audit_log.2026-10-17.00000001.seg");
+    Path crashed = dir.resolve("audit_log.2026-10-17.00000002.seg");
+    Files.write(previous, "previous\n".getBytes(UTF_8));
+    byte[] content = new byte[100 * 1024];
+    byte[] records = "first\nsecond\npart".getBytes(UTF_8);
+    System.arraycopy(records, 0, content, 0, records.length);
+    Files.write(crashed, content);
+
+    AuditWriterToMappedSegments writer = newWriter(dir, 4096, RollPeriod.DAY);
+    writer.start();
+    writer.write("new");
+    writer.stop();
+
+    assertEquals("previous\n", new String(Files.readAllBytes(previous), UTF_8));
+    assertEquals("first\nsecond\n", new String(Files.readAllBytes(crashed), UTF_8));
+    assertEquals(
+        "new\n",
+        new String(Files.readAllBytes(dir.resolve("audit_log.2026-10-17.00000003.seg")), UTF_8));
+  }
+
+  @Test
+  public void shouldOrderSegmentsByName() throws Exception {
+    Path dir = tempFolder.getRoot().toPath();
+    Files.write(dir.resolve("audit_log.2026-10-17.00009999.seg"), "existing\n".getBytes(UTF_8));
+    AuditWriterToMappedSegments writer = newWriter(dir, 4096, RollPeriod.DAY);
+    writer.write("new");
+    writer.stop();
+
+    List<Path> segments = segments(dir);
+    assertEquals("audit_log.2026-10-17.00010000.seg", segments.get(1).getFileName().toString());
+    assertEquals("new\n", new String(Files.readAllBytes(segments.get(1)), UTF_8));
+  }
+
+  private AuditWriterToMappedSegments newWriter(Path dir, int segmentSize, RollPeriod period) {
+    return new AuditWriterToMappedSegments(
+        dir,
+        "audit_log",
+        segmentSize,
+        period,
+        DurabilityPolicy.BATCH,
+        1000,
+        1000,
+        now::get,
+        AuditMetrics.DISABLED);
+  }
+
+  private static List<String> segmentNames(String period, int count) {
+    List<String> names = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      names.add(String.format("audit_log.%s.%08d.seg", period, i));
+    }
+    return names;
+  }
+
+  private static List<Path> segments(Path dir) throws Exception {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static List<String> readAll(Path dir) throws Exception {
+    List<String> lines = new ArrayList<>();
+    for (Path segment : segments(dir)) {
+      lines.addAll(Files.readAllLines(segment, UTF_8));
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,105 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.googlesource.gerrit.plugins.auditsl4j.AuditRingBuffer.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class AuditWriterToRingBufferTest implements WaitForCondition {
+  private final AuditWriterToStringList sink = new AuditWriterToStringList();
+
+  @Test
+  public void shouldDeliverRecordsOfConcurrentProducersInOrder() throws Exception {
+    int producers = 4;
+    int recordsPerProducer = 1000;
+    AuditWriterToRingBuffer writer =
+        new AuditWriterToRingBuffer(sink, 64, OverflowPolicy.BLOCK, 10000, 16);
+    writer.start();
+
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      String producer = "producer-" + p;
+      Thread thread =
+          new Thread(
+              () -> {
+                for (int i = 0; i < recordsPerProducer; i++) {
+                  writer.write(producer + ":" + i);
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertTrue(waitFor(() -> writer.queued() == 0));
+    writer.stop();
+
+    assertEquals(producers * recordsPerProducer, sink.strings.size());
+    assertEquals(0, writer.dropped());
+    int[] next = new int[producers];
+    for (String record : sink.strings) {
+      String[] parts = record.split("[-:]");
+      int producer = Integer.parseInt(parts[1]);
+      assertEquals(next[producer]++, Integer.parseInt(parts[2]));
+    }
+  }
+
+  @Test
+  public void shouldDropNewestRecordsWhenFull() {
+    AuditWriterToRingBuffer writer =
+        new AuditWriterToRingBuffer(sink, 4, OverflowPolicy.DROP_NEWEST, 0, 16);
+    for (int i = 0; i < 6; i++) {
+      writer.write("record-" + i);
+    }
+    writer.start();
+    writer.stop();
+
+    assertEquals(2, writer.dropped());
+    assertEquals(Arrays.asList("record-0", "record-1", "record-2", "record-3"), sink.strings);
+  }
+
+  @Test
+  public void shouldDropOldestRecordsWhenFull() {
+    AuditWriterToRingBuffer writer =
+        new AuditWriterToRingBuffer(sink, 4, OverflowPolicy.DROP_OLDEST, 0, 16);
+    for (int i = 0; i < 6; i++) {
+      writer.write("record-" + i);
+    }
+    writer.start();
+    writer.stop();
+
+    assertEquals(2, writer.dropped());
+    assertEquals(Arrays.asList("record-2", "record-3", "record-4", "record-5"), sink.strings);
+  }
+
+  @Test
+  public void shouldDropRecordsAfterBlockingTimeout() {
+    AuditWriterToRingBuffer writer =
+        new AuditWriterToRingBuffer(sink, 2, OverflowPolicy.BLOCK, 1, 16);
+    for (int i = 0; i < 3; i++) {
+      writer.write("record-" + i);
+    }
+
+    assertEquals(1, writer.blocked());
+    assertEquals(1, writer.dropped());
+  }
+}
@@ -0,0 +1,89 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gerrit.server.audit.SshAuditEvent;
+import com.googlesource.gerrit.plugins.auditsl4j.AuditRingBuffer.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AuditWriterToStripesTest implements WaitForCondition {
+  private final AuditWriterToStringList sink = new AuditWriterToStringList();
+
+  @Test
+  public void shouldMergeRecordsOfAllStripesByTimestamp() throws Exception {
+    int producers = 8;
+    int recordsPerProducer = 500;
+    AuditWriterToStripes writer =
+        new AuditWriterToStripes(
+            sink, 4, 1024, OverflowPolicy.BLOCK, 10000, TimeUnit.HOURS.toMillis(1));
+    writer.start();
+
+    long now = System.currentTimeMillis();
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      int producer = p;
+      Thread thread =
+          new Thread(
+              () -> {
+                for (int i = 0; i < recordsPerProducer; i++) {
+                  long offset = (i * 7919L + producer * 104729L) % 100000L;
+                  writer.write(newEvent(now + offset), String.format("%06d", offset));
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    writer.stop();
+
+    assertEquals(producers * recordsPerProducer, sink.strings.size());
+    List<String> sorted = new ArrayList<>(sink.strings);
+    sorted.sort(null);
+    assertEquals(sorted, sink.strings);
+    assertEquals(0, writer.late());
+    assertEquals(0, writer.dropped());
+  }
+
+  @Test
+  public void shouldCountRecordsArrivingAfterTheMergeWindow() throws Exception {
+    AuditWriterToStripes writer = new AuditWriterToStripes(sink, 1, 16, OverflowPolicy.BLOCK, 0, 0);
+    writer.start();
+    long now = System.currentTimeMillis();
+    writer.write(newEvent(now), "newer");
+    assertTrue(waitFor(() -> !sink.strings.isEmpty()));
+    writer.write(newEvent(now - 1000), "older");
+    writer.stop();
+
+    assertEquals(1, writer.late());
+    assertEquals(2, sink.strings.size());
+  }
+
+  @Test
+  public void shouldRoundStripesToPowerOfTwo() {
+    assertEquals(8, new AuditWriterToStripes(sink, 5, 16, OverflowPolicy.BLOCK, 0, 0).stripes());
+  }
+
+  private static SshAuditEvent newEvent(long when) {
+    return new SshAuditEvent("session", new AuditUser(), "action", when, null, null);
+  }
+}
@@ -0,0 +1,256 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.googlesource.gerrit.plugins.auditsl4j.AuditWriterToSyslog.Facility;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class AuditWriterToSyslogTest implements WaitForCondition {
+  private static final long NOW_MS = 1700000000123L;
+  private static final String HEADER =
+      "<134>1 2023-11-14T22:13:20.123Z gerrit-host gerrit "
+          + ProcessHandle.current().pid()
+          + " audit - ";
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void shouldSendOneDatagramPerRecordOverUdp() throws Exception {
+    try (DatagramChannel collector = DatagramChannel.open()) {
+      collector.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      AuditWriterToSyslog writer = newWriter(collector.getLocalAddress(), 64 * 1024);
+
+      for (int i = 0; i < 3; i++) {
+        writer.write("record-" + i);
+      }
+      writer.flush();
+
+      ByteBuffer datagram = ByteBuffer.allocate(1024);
+      for (int i = 0; i < 3; i++) {
+        datagram.clear();
+        collector.receive(datagram);
+        datagram.flip();
+        assertEquals(HEADER + "record-" + i, UTF_8.decode(datagram).toString());
+      }
+      writer.stop();
+    }
+  }
+
+  @Test
+  public void shouldSendBatchOfOctetCountedRecordsOverUnixSocket() throws Exception {
+    UnixDomainSocketAddress address =
+        UnixDomainSocketAddress.of(tempFolder.getRoot().toPath().resolve("syslog.sock"));
+    try (ServerSocketChannel collector = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+      collector.bind(address);
+      AuditWriterToSyslog writer = newWriter(address, 64 * 1024);
+
+      List<String> records = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        String record = "record-" + i + " caf\u00e9";
+        records.add(record);
+        writer.write(record);
+      }
+      writer.flush();
+      writer.stop();
+
+      try (SocketChannel connection = collector.accept()) {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        while (connection.read(buffer) > 0) {
+          received.write(buffer.array(), 0, buffer.position());
+          buffer.clear();
+        }
+        StringBuilder expected = new StringBuilder();
+        for (String record : records) {
+          String message = HEADER + record;
+          expected.append(message.getBytes(UTF_8).length).append(' ').append(message);
+        }
+        assertEquals(expected.toString(), received.toString(UTF_8));
+      }
+    }
+  }
+
+  @Test
+  public void shouldSendFromSenderThreadWhenStarted() throws Exception {
+    UnixDomainSocketAddress address =
+        UnixDomainSocketAddress.of(tempFolder.getRoot().toPath().resolve("syslog.sock"));
+    try (ServerSocketChannel collector = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+      collector.bind(address);
+      collector.configureBlocking(false);
+      AuditWriterToSyslog writer = newWriter(address, 64 * 1024);
+      writer.start();
+
+      writer.write("record");
+      writer.flush();
+
+      List<SocketChannel> connections = new ArrayList<>();
+      assertTrue(waitFor(() -> accept(collector, connections)));
+      try (SocketChannel connection = connections.get(0)) {
+        connection.configureBlocking(true);
+        String message = HEADER + "record";
+        String expected = message.getBytes(UTF_8).length + " " + message;
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length());
+        while (buffer.hasRemaining() && connection.read(buffer) >= 0) {}
+        assertEquals(expected, new String(buffer.array(), UTF_8));
+      }
+      writer.stop();
+    }
+  }
+
+  @Test
+  public void shouldRestartAtMessageBoundaryAfterConnectionLoss() throws Exception {
+    UnixDomainSocketAddress address =
+        UnixDomainSocketAddress.of(tempFolder.getRoot().toPath().resolve("syslog.sock"));
+    AtomicLong now = new AtomicLong(NOW_MS);
+    try (ServerSocketChannel collector = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+      collector.bind(address);
+      AuditWriterToSyslog writer = newWriter(address, 4 * 1024 * 1024, now::get);
+      String padding = "x".repeat(8 * 1024);
+      for (int i = 0; i < 200; i++) {
+        writer.write("record-" + i + " " + padding);
+      }
+      writer.flush();
+      collector.accept().close();
+      writer.flush();
+
+      now.addAndGet(60 * 1000);
+      writer.flush();
+      try (SocketChannel connection = collector.accept()) {
+        connection.configureBlocking(false);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        String lastRecord = "record-199 " + padding;
+        assertTrue(
+            waitFor(
+                () -> {
+                  writer.flush();
+                  read(connection, received);
+                  return received.toString(UTF_8).endsWith(lastRecord);
+                }));
+        writer.stop();
+
+        String stream = received.toString(UTF_8);
+        int previous = -1;
+        for (int frame = 0; frame < stream.length(); ) {
+          int space = stream.indexOf(' ', frame);
+          int length = Integer.parseInt(stream.substring(frame, space));
+          String message = stream.substring(space + 1, space + 1 + length);
+          String prefix = HEADER + "record-";
+          assertTrue(message.startsWith(prefix));
+          int record =
+              Integer.parseInt(
+                  message.substring(prefix.length(), message.indexOf(' ', prefix.length())));
+          assertTrue(record > previous);
+          previous = record;
+          frame = space + 1 + length;
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shouldDropRecordsWhenCollectorIsUnavailableAndBufferIsFull() throws Exception {
+    AuditWriterToSyslog writer =
+        newWriter(
+            UnixDomainSocketAddress.of(tempFolder.getRoot().toPath().resolve("missing.sock")),
+            4096);
+
+    for (int i = 0; i < 100; i++) {
+      writer.write("record-" + i);
+      writer.flush();
+    }
+
+    assertTrue(writer.dropped() > 0);
+  }
+
+  @Test
+  public void shouldParseAddresses() {
+    assertEquals(
+        new InetSocketAddress("localhost", 514),
+        AuditWriterToSyslog.parseAddress("udp://localhost"));
+    assertEquals(
+        new InetSocketAddress("localhost", 10514),
+        AuditWriterToSyslog.parseAddress("udp://localhost:10514"));
+    assertEquals(
+        UnixDomainSocketAddress.of("/run/rsyslog/audit.sock"),
+        AuditWriterToSyslog.parseAddress("unix:/run/rsyslog/audit.sock"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldRejectUnsupportedAddresses() {
+    AuditWriterToSyslog.parseAddress("tcp://localhost:514");
+  }
+
+  private static AuditWriterToSyslog newWriter(SocketAddress address, int bufferSize) {
+    return newWriter(address, bufferSize, () -> NOW_MS);
+  }
+
+  private static AuditWriterToSyslog newWriter(
+      SocketAddress address, int bufferSize, LongSupplier clock) {
+    return new AuditWriterToSyslog(
+        address,
+        Facility.LOCAL0,
+        "gerrit-host",
+        "gerrit",
+        bufferSize,
+        clock,
+        AuditMetrics.DISABLED);
+  }
+
+  private static void read(SocketChannel connection, ByteArrayOutputStream received) {
+    try {
+      ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+      while (connection.read(buffer) > 0) {
+        received.write(buffer.array(), 0, buffer.position());
+        buffer.clear();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static boolean accept(ServerSocketChannel collector, List<SocketChannel> connections) {
+    try {
+      SocketChannel connection = collector.accept();
+      if (connection != null) {
+        connections.add(connection);
+      }
+      return connection != null;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
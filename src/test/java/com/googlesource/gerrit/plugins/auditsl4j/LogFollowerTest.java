@@ -0,0 +1,134 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LogFollowerTest {
+  private Path log;
+
+  @Before
+  public void setUp() throws Exception {
+    log = Files.createTempDirectory("audit-follow").resolve("httpd_log");
+  }
+
+  @Test
+  public void readOnlyLinesAppendedAfterFirstPoll() throws Exception {
+    append("old\n");
+    try (LogFollower follower = new LogFollower(log, false)) {
+      assertEquals(Collections.emptyList(), follower.poll());
+
+      append("first\nsecond\n");
+      assertEquals(Arrays.asList("first", "second"), follower.poll());
+      assertEquals(Collections.emptyList(), follower.poll());
+    }
+  }
+
+  @Test
+  public void readExistingLinesFromStart() throws Exception {
+    append("old\r\n");
+    try (LogFollower follower = new LogFollower(log, true)) {
+      assertEquals(Arrays.asList("old"), follower.poll());
+    }
+  }
+
+  @Test
+  public void waitForLogToBeCreated() throws Exception {
+    try (LogFollower follower = new LogFollower(log, false)) {
+      assertEquals(Collections.emptyList(), follower.poll());
+
+      append("first\n");
+      assertEquals(Arrays.asList("first"), follower.poll());
+    }
+  }
+
+  @Test
+  public void keepPartialLineUntilComplete() throws Exception {
+    try (LogFollower follower = new LogFollower(log, true)) {
+      append("fir");
+      assertEquals(Collections.emptyList(), follower.poll());
+
+      append("st\nsec");
+      assertEquals(Arrays.asList("first"), follower.poll());
+
+      append("ond\n");
+      assertEquals(Arrays.asList("second"), follower.poll());
+    }
+  }
+
+  @Test
+  public void finishRotatedLogBeforeFollowingNewOne() throws Exception {
+    try (LogFollower follower = new LogFollower(log, true)) {
+      append("first\n");
+      assertEquals(Arrays.asList("first"), follower.poll());
+
+      append("last\n");
+      Files.move(log, log.resolveSibling("httpd_log.2019-01-23"));
+      assertEquals(Arrays.asList("last"), follower.poll());
+
+      append("new\n");
+      assertEquals(Arrays.asList("new"), follower.poll());
+    }
+  }
+
+  @Test
+  public void readLastLineWithoutEndOfRotatedLog() throws Exception {
+    try (LogFollower follower = new LogFollower(log, true)) {
+      append("first\nla");
+      assertEquals(Arrays.asList("first"), follower.poll());
+
+      append("st");
+      Files.move(log, log.resolveSibling("httpd_log.2019-01-23"));
+      append("new\n");
+      assertEquals(Arrays.asList("last", "new"), follower.poll());
+    }
+  }
+
+  @Test
+  public void readRecreatedLogFromStart() throws Exception {
+    try (LogFollower follower = new LogFollower(log, true)) {
+      append("first\n");
+      assertEquals(Arrays.asList("first"), follower.poll());
+
+      Files.move(log, log.resolveSibling("httpd_log.2019-01-23"));
+      append("new\n");
+      assertEquals(Arrays.asList("new"), follower.poll());
+    }
+  }
+
+  @Test
+  public void readTruncatedLogFromStart() throws Exception {
+    try (LogFollower follower = new LogFollower(log, true)) {
+      append("first line\n");
+      assertEquals(Arrays.asList("first line"), follower.poll());
+
+      Files.write(log, "new\n".getBytes(UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+      assertEquals(Arrays.asList("new"), follower.poll());
+    }
+  }
+
+  private void append(String text) throws Exception {
+    Files.write(log, text.getBytes(UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+}
@@ -0,0 +1,238 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogTransformPipelineTest {
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final ExecutorService workers = Executors.newFixedThreadPool(4);
+
+  @After
+  public void tearDown() {
+    workers.shutdownNow();
+  }
+
+  @Test
+  public void writeRecordsInInputOrder() throws Exception {
+    StringBuilder input = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    int records = 0;
+    for (int i = 0; i < 10000; i++) {
+      input.append(i).append('\n');
+      if (i % 3 != 0) {
+        expected.append("record-").append(i).append('\n');
+        records++;
+      }
+    }
+    StringWriter output = new StringWriter();
+
+    LogTransformPipeline pipeline = new LogTransformPipeline(workers, 7, 2);
+    pipeline.run(
+        new BufferedReader(new StringReader(input.toString())),
+        line -> {
+          if (ThreadLocalRandom.current().nextInt(10) == 0) {
+            Thread.yield();
+          }
+          return Integer.parseInt(line) % 3 == 0 ? Optional.empty() : Optional.of("record-" + line);
+        },
+        output);
+
+    assertEquals(expected.toString(), output.toString());
+    assertEquals(10000, pipeline.linesRead());
+    assertEquals(records, pipeline.recordsWritten());
+    assertEquals(expected.length(), pipeline.charsWritten());
+  }
+
+  @Test
+  public void notifyWrittenLinesAfterEachBatch() throws Exception {
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      input.append(i).append('\n');
+    }
+    StringWriter output = new StringWriter();
+    List<Long> written = new ArrayList<>();
+
+    new LogTransformPipeline(workers, 7, 2)
+        .run(
+            new BufferedReader(new StringReader(input.toString())),
+            Optional::of,
+            output,
+            lines -> {
+              assertEquals(lines, output.toString().split("\n").length);
+              written.add(lines);
+            });
+
+    assertEquals(Arrays.asList(7L, 14L, 20L), written);
+  }
+
+  @Test
+  public void emptyInput() throws Exception {
+    StringWriter output = new StringWriter();
+
+    LogTransformPipeline pipeline = new LogTransformPipeline(workers, 7, 2);
+    pipeline.run(new BufferedReader(new StringReader("")), Optional::of, output);
+
+    assertEquals("", output.toString());
+    assertEquals(0, pipeline.linesRead());
+  }
+
+  @Test
+  public void propagateReadFailure() throws Exception {
+    IOException failure = new IOException("Corrupt input");
+    Reader failingReader =
+        new Reader() {
+          @Override
+          public int read(char[] cbuf, int off, int len) throws IOException {
+            throw failure;
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    try {
+      new LogTransformPipeline(workers, 7, 2)
+          .run(new BufferedReader(failingReader), Optional::of, new StringWriter());
+      fail("Expected the read failure to be propagated");
+    } catch (IOException e) {
+      assertSame(failure, e);
+    }
+  }
+
+  @Test
+  public void propagateUncheckedReadFailure() throws Exception {
+    RuntimeException failure = new UncheckedIOException(new IOException("Corrupt input"));
+    Reader failingReader =
+        new Reader() {
+          @Override
+          public int read(char[] cbuf, int off, int len) {
+            throw failure;
+          }
+
+          @Override
+          public void close() {}
+        };
+
+    try {
+      new LogTransformPipeline(workers, 7, 2)
+          .run(new BufferedReader(failingReader), Optional::of, new StringWriter());
+      fail("Expected the read failure to be propagated");
+    } catch (UncheckedIOException e) {
+      assertSame(failure, e);
+    }
+  }
+
+  @Test
+  public void transformMappedLogInChunksOfLines() throws Exception {
+    StringBuilder input = new StringBuilder();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      input.append("line ").append(i).append(i % 2 == 0 ? "\n" : "\r\n");
+      expected.append("record-line ").append(i).append('\n');
+    }
+    StringWriter output = new StringWriter();
+
+    LogTransformPipeline pipeline = new LogTransformPipeline(workers, 100, 2);
+    try (FileChannel log = FileChannel.open(writeLog(input.toString()))) {
+      pipeline.run(log, 0, line -> Optional.of("record-" + line), output, lines -> {});
+    }
+
+    assertEquals(expected.toString(), output.toString());
+    assertEquals(10000, pipeline.linesRead());
+    assertEquals(10000, pipeline.recordsWritten());
+  }
+
+  @Test
+  public void transformMappedLogWithoutFinalNewLine() throws Exception {
+    StringWriter output = new StringWriter();
+
+    LogTransformPipeline pipeline = new LogTransformPipeline(workers, 4, 2);
+    try (FileChannel log = FileChannel.open(writeLog("first\nsecond\nlast"))) {
+      pipeline.run(log, 0, line -> Optional.of(line.toString()), output, lines -> {});
+    }
+
+    assertEquals("first\nsecond\nlast\n", output.toString());
+    assertEquals(3, pipeline.linesRead());
+  }
+
+  @Test
+  public void decodeNonAsciiLinesOfMappedLog() throws Exception {
+    StringWriter output = new StringWriter();
+
+    try (FileChannel log = FileChannel.open(writeLog("ascii\nnon-ascii \u00e9\u20ac\n"))) {
+      new LogTransformPipeline(workers, 7, 2)
+          .run(log, 0, line -> Optional.of(line.toString()), output, lines -> {});
+    }
+
+    assertEquals("ascii\nnon-ascii \u00e9\u20ac\n", output.toString());
+  }
+
+  @Test
+  public void skipLinesOfMappedLog() throws Exception {
+    StringWriter output = new StringWriter();
+    List<Long> written = new ArrayList<>();
+
+    LogTransformPipeline pipeline = new LogTransformPipeline(workers, 6, 2);
+    try (FileChannel log = FileChannel.open(writeLog("0\n1\n2\n3\n4\n5\n6\n"))) {
+      pipeline.run(log, 3, line -> Optional.of(line.toString()), output, written::add);
+    }
+
+    assertEquals("3\n4\n5\n6\n", output.toString());
+    assertEquals(Arrays.asList(3L, 4L), written);
+  }
+
+  @Test
+  public void failWhenSkippingMoreLinesThanTheMappedLogHas() throws Exception {
+    try (FileChannel log = FileChannel.open(writeLog("0\n1\n"))) {
+      new LogTransformPipeline(workers, 7, 2)
+          .run(log, 3, line -> Optional.of(line.toString()), new StringWriter(), lines -> {});
+      fail("Expected skipping missing lines to fail");
+    } catch (IOException e) {
+      assertEquals("Log has 2 lines, expected 3", e.getMessage());
+    }
+  }
+
+  private Path writeLog(String content) throws IOException {
+    Path log = tempFolder.newFile().toPath();
+    Files.write(log, content.getBytes(UTF_8));
+    return log;
+  }
+}
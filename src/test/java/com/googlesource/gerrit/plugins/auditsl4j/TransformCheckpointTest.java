@@ -0,0 +1,105 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransformCheckpointTest {
+  private static final String HTTPD = "httpd_log";
+  private static final String SSHD = "sshd_log";
+
+  private final AtomicLong clock = new AtomicLong(1000000);
+  private Path auditLog;
+
+  @Before
+  public void setUp() throws Exception {
+    auditLog = Files.createTempDirectory("audit-checkpoint").resolve("audit_log.2019-01-23.log");
+  }
+
+  @Test
+  public void newCheckpointHasNoProgress() throws Exception {
+    TransformCheckpoint checkpoint = TransformCheckpoint.load(auditLog, clock::get);
+
+    assertFalse(checkpoint.isComplete());
+    assertEquals(OptionalLong.empty(), checkpoint.outputLength());
+    assertEquals(0, checkpoint.lines(HTTPD));
+    assertEquals(0, checkpoint.partLength(HTTPD));
+    assertFalse(checkpoint.isTransformed(HTTPD));
+    assertFalse(checkpoint.isAppended(HTTPD));
+  }
+
+  @Test
+  public void reloadSavedProgress() throws Exception {
+    TransformCheckpoint checkpoint = TransformCheckpoint.load(auditLog, clock::get);
+    checkpoint.setOutputLength(10);
+    checkpoint.setTransformed(HTTPD, 100, 2000);
+    checkpoint.setAppended(HTTPD, 2010);
+    clock.addAndGet(1000);
+    checkpoint.setProgress(SSHD, 50, 700);
+
+    TransformCheckpoint reloaded = TransformCheckpoint.load(auditLog, clock::get);
+    assertEquals(OptionalLong.of(2010), reloaded.outputLength());
+    assertEquals(100, reloaded.lines(HTTPD));
+    assertEquals(2000, reloaded.partLength(HTTPD));
+    assertTrue(reloaded.isTransformed(HTTPD));
+    assertTrue(reloaded.isAppended(HTTPD));
+    assertEquals(50, reloaded.lines(SSHD));
+    assertEquals(700, reloaded.partLength(SSHD));
+    assertFalse(reloaded.isTransformed(SSHD));
+    assertFalse(reloaded.isComplete());
+    assertTrue(Files.exists(auditLog.resolveSibling(auditLog.getFileName() + ".checkpoint")));
+  }
+
+  @Test
+  public void markMergedTypesAsAppendedTogether() throws Exception {
+    TransformCheckpoint checkpoint = TransformCheckpoint.load(auditLog, clock::get);
+    checkpoint.setAppended(Arrays.asList(HTTPD, SSHD), 3000);
+
+    TransformCheckpoint reloaded = TransformCheckpoint.load(auditLog, clock::get);
+    assertTrue(reloaded.isAppended(HTTPD));
+    assertTrue(reloaded.isAppended(SSHD));
+    assertEquals(OptionalLong.of(3000), reloaded.outputLength());
+  }
+
+  @Test
+  public void saveProgressAtMostOncePerSecond() throws Exception {
+    TransformCheckpoint checkpoint = TransformCheckpoint.load(auditLog, clock::get);
+    checkpoint.setProgress(HTTPD, 10, 100);
+    checkpoint.setProgress(HTTPD, 20, 200);
+    assertEquals(10, TransformCheckpoint.load(auditLog, clock::get).lines(HTTPD));
+
+    clock.addAndGet(1000);
+    checkpoint.setProgress(HTTPD, 30, 300);
+    assertEquals(30, TransformCheckpoint.load(auditLog, clock::get).lines(HTTPD));
+    assertEquals(300, TransformCheckpoint.load(auditLog, clock::get).partLength(HTTPD));
+  }
+
+  @Test
+  public void reloadCompleteDay() throws Exception {
+    TransformCheckpoint.load(auditLog, clock::get).setComplete();
+
+    assertTrue(TransformCheckpoint.load(auditLog, clock::get).isComplete());
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright (C) 2026 The Android Open Source Project
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.googlesource.gerrit.plugins.auditsl4j;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class TransformProgressTest {
+  private final AtomicLong clock = new AtomicLong(1000000);
+
+  @Test
+  public void reportThroughputAndRemainingTime() {
+    TransformProgress progress = new TransformProgress(clock::get);
+    progress.addInput(3000);
+    progress.addInput(1000);
+    progress.add(100, 90, 800);
+    progress.add(100, 100, 200);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+    assertEquals(200, progress.linesRead());
+    assertEquals(190, progress.recordsWritten());
+    assertEquals(10, progress.parseFailures());
+    assertEquals(
+        "Progress: 25.0% of 4000 bytes, 200 lines: 20 lines/s, 100 bytes/s, 10 parse failures,"
+            + " ETA 0:00:30",
+        progress.report());
+  }
+
+  @Test
+  public void reportHoursOfRemainingTime() {
+    TransformProgress progress = new TransformProgress(clock::get);
+    progress.addInput(10000);
+    progress.add(1, 1, 1);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+    assertEquals(
+        "Progress: 0.0% of 10000 bytes, 1 lines: 1 lines/s, 1 bytes/s, 0 parse failures,"
+            + " ETA 2:46:39",
+        progress.report());
+  }
+
+  @Test
+  public void noRemainingTimeOnceAllRead() {
+    TransformProgress progress = new TransformProgress(clock::get);
+    progress.addInput(1000);
+    progress.add(10, 10, 1000);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+    assertEquals(
+        "Progress: 100.0% of 1000 bytes, 10 lines: 5 lines/s, 500 bytes/s, 0 parse failures",
+        progress.report());
+  }
+
+  @Test
+  public void noRemainingTimeBeforeAnyRead() {
+    TransformProgress progress = new TransformProgress(clock::get);
+    progress.addInput(1000);
+
+    assertEquals(
+        "Progress: 0.0% of 1000 bytes, 0 lines: 0 lines/s, 0 bytes/s, 0 parse failures",
+        progress.report());
+  }
+}
@@ -151,4 +151,43 @@ public class HttpLogTest {
     assertTrue(auditLog.contains("\"type\":\"ExtendedHttpAuditEvent\""));
     assertTrue(auditLog.contains("\"access_path\":\"REST_API\""));
   }
+
+  @Test
+  public void scannerProducesSameFieldsAsPattern() {
+    String[] lines = {
+      "104.32.164.100 - - [24/Jan/2019:00:00:03 +0000] \"GET /plugins/events-log/ HTTP/1.1\" 404 9"
+          + " - \"Apache-HttpClient/4.5.3 (Java/1.8.0_191)\"",
+      "171.13.14.52 - - [19/Jan/2019:00:00:46 +0000] \"HEAD /Documentation/index.html HTTP/1.1\""
+          + " 200 - - \"Mozilla/5.0 (Windows NT 10.0 WOW64)\"",
+      "10.0.0.1 - admin [19/Jan/2019:00:00:46 +0000] \"GET /a b c HTTP/1.1\" 200 12 x \"git/2.1\"",
+      "10.0.0.1 - - [19/Jan/2019:00:00:46 +0000] \"GET /a \"quoted\" HTTP/1.1\" 200 12 - \"git\"",
+      "10.0.0.1 - - [19/Jan/2019:00:00:46 +0000] \"GET /a HTTP/1.1\" 200 12 \"https://r\" \"g\"",
+      "10.0.0.1 - - [t] \"(GET /a HTTP/1.1\" 200 1 - ua] \"GET /b HTTP/1.1\" 200 1 - ua",
+      "10.0.0.1 -\t- [t]\t\"GET\t/a\tHTTP/1.1\"\t200\t1\t-\tua",
+      "10.0.0.1 - - [t] \"GET /a HTTP/1.1\" 999999999999 1 - ua",
+      "10.0.0.1 - - [t] \"GET /a HTTP/1.1\" 200 1 -",
+      "invalid http log",
+    };
+    for (String line : lines) {
+      Optional<HTTPLog> expected = HTTPLog.parseWithPattern(line);
+      Optional<HTTPLog> scanned = HTTPLog.createFromLog(line);
+      assertEquals(line, expected.isPresent(), scanned.isPresent());
+      if (expected.isPresent()) {
+        assertSameFields(line, expected.get(), scanned.get());
+      }
+    }
+  }
+
+  private static void assertSameFields(String line, HTTPLog expected, HTTPLog actual) {
+    assertEquals(line, expected.getIp(), actual.getIp());
+    assertEquals(line, expected.getUser(), actual.getUser());
+    assertEquals(line, expected.getTimestamp(), actual.getTimestamp());
+    assertEquals(line, expected.getMethod(), actual.getMethod());
+    assertEquals(line, expected.getResource(), actual.getResource());
+    assertEquals(line, expected.getProtocol(), actual.getProtocol());
+    assertEquals(line, expected.getStatus(), actual.getStatus());
+    assertEquals(line, expected.getContentLength(), actual.getContentLength());
+    assertEquals(line, expected.getReferrer(), actual.getReferrer());
+    assertEquals(line, expected.getUserAgent(), actual.getUserAgent());
+  }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.googlesource.gerrit.plugins.auditsl4j.logsource;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class LogTimestampParserTest {
+
+  @Test
+  public void parseHttpTimestamps() throws Exception {
+    SimpleDateFormat format = new SimpleDateFormat("dd/MMM/yyyy:HH:mm:ss Z", Locale.US);
+    String[] timestamps = {
+      "24/Jan/2019:00:00:03 +0000",
+      "24/Jan/2019:00:00:59 +0000",
+      "24/Jan/2019:00:01:00 +0000",
+      "24/Jan/2019:00:01:00 +0130",
+      "24/Jan/2019:12:30:00 +0000",
+      "31/Dec/2019:23:59:59 -0800",
+    };
+    for (String timestamp : timestamps) {
+      assertEquals(
+          timestamp,
+          format.parse(timestamp).getTime(),
+          LogTimestampParser.HTTP.parse(timestamp));
+    }
+  }
+
+  @Test
+  public void parseSshTimestamps() throws Exception {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss,SSS Z", Locale.US);
+    String[] timestamps = {
+      "2019-01-23 12:44:04,723 +0100",
+      "2019-01-23 12:44:04,724 +0100",
+      "2019-01-23 12:44:59,999 +0100",
+      "2019-01-23 12:44:59,999 +0000",
+      "2019-01-23 12:45:00,000 +0000",
+      "2020-02-29 00:00:00,001 -0500",
+    };
+    for (String timestamp : timestamps) {
+      assertEquals(
+          timestamp, format.parse(timestamp).getTime(), LogTimestampParser.SSH.parse(timestamp));
+    }
+  }
+
+  @Test
+  public void parseConcurrently() throws Exception {
+    SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss,SSS Z", Locale.US);
+    List<Callable<Void>> parsers = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      String day = String.format("2019-01-%02d", t + 1);
+      long dayStart = format.parse(day + " 00:00:00,000 +0000").getTime();
+      parsers.add(
+          () -> {
+            for (int i = 0; i < 100000; i += 7) {
+              String timestamp =
+                  String.format(
+                      "%s %02d:%02d:%02d,%03d +0000",
+                      day, i / 3600 % 24, i / 60 % 60, i % 60, i % 1000);
+              long expected =
+                  dayStart + ((i / 3600 % 24) * 3600 + (i / 60 % 60) * 60 + i % 60) * 1000L
+                      + i % 1000;
+              assertEquals(timestamp, expected, LogTimestampParser.SSH.parse(timestamp));
+            }
+            return null;
+          });
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(parsers.size());
+    try {
+      for (Future<Void> result : executor.invokeAll(parsers)) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = ParseException.class)
+  public void rejectInvalidTimestamp() throws Exception {
+    LogTimestampParser.SSH.parse("2019-01-23 12:44:04.723 +0100");
+  }
+
+  @Test(expected = ParseException.class)
+  public void rejectInvalidZone() throws Exception {
+    LogTimestampParser.HTTP.parse("24/Jan/2019:00:00:03 GMT");
+  }
+}
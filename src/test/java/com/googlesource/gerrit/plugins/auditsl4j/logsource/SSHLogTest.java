@@ -150,4 +150,46 @@ public class SSHLogTest {
         auditLog.contains("\"access_path\":\"SSH_COMMAND\""));
     assertTrue("'when' not matched: " + auditLog, auditLog.contains("\"when\":1548243866665"));
   }
+
+  @Test
+  public void scannerProducesSameFieldsAsPatterns() {
+    String[] lines = {
+      "[2019-01-23 12:44:04,723 +0100] b015fbe2 admin a/1000000 audit-sl4j.import 2ms 2ms 0",
+      "[2019-01-23 12:44:26,665 +0100] 70e3031f admin a/1000000 LOGOUT",
+      "[2019-01-01 00:00:05,613 +0000] e126989b spdk-bot a/1011203 LOGIN FROM 172.19.0.1",
+      "[2019-01-01 00:00:05,613 +0000] e126989b spdk-bot a/1011203 LOGIN: FROM 172.19.0.1",
+      "[2019-01-01 00:00:05,613 +0000] e126989b bot a/1011203 git-upload-pack LOGIN 1ms 1ms 0",
+      "[2019-01-01 00:00:05,613 +0000] e126989b bot a/1 x LOGINS",
+      "[2018-09-22 15:44:30,539 +0000] ce2a2263 jenkins a/1012807 gerrit.review.--message.Build",
+      "[2018-09-22 16:28:30,668 +0000] 61e0f7b9 jenkins a/1012807 review Started 1/ . 1ms 303ms 0",
+      "[2018-09-22 16:28:30,668 +0000] 61e0f7b9 jenkins a/1012807 cmd 1ms 2ms x 3ms 4ms FAIL",
+      "[2018-09-22 16:28:30,668 +0000] 61e0f7b9 jenkins a/1012807 cmd 1ms 2ms ",
+      "[2018-09-22 16:28:30,668 +0000] 61e0f7b9 jenkins a/1012807 cmd 1ms",
+      "[2018-09-03 18:14:43,831 +0000] f540bf46 - AUTH FAILURE FROM 172.19.0.1 user-not-found",
+      "[2018-09-03 18:14:43,831 +0000] f540bf46 john doe AUTH FAILURE",
+      "[2018-09-03 18:14:43,831 +0000] f540bf46 - AUTH FAILURES",
+      "[t]\tsession\tuser\taccount\tcommand\t1ms\t1ms\t0",
+      "[t] ] s u a c",
+      "[t] s u a",
+      "[t] s u",
+      "invalid ssh log",
+    };
+    for (String line : lines) {
+      Optional<SSHLog> expected = SSHLog.parseWithPatterns(line);
+      Optional<SSHLog> scanned = SSHLog.scan(line);
+      assertEquals(line, expected.isPresent(), scanned.isPresent());
+      if (expected.isPresent()) {
+        SSHLog e = expected.get();
+        SSHLog a = scanned.get();
+        assertEquals(line, e.getTimestamp(), a.getTimestamp());
+        assertEquals(line, e.getSession(), a.getSession());
+        assertEquals(line, e.getUser(), a.getUser());
+        assertEquals(line, e.getAccountId(), a.getAccountId());
+        assertEquals(line, e.getCommand(), a.getCommand());
+        assertEquals(line, e.getWaitTime(), a.getWaitTime());
+        assertEquals(line, e.getExecTime(), a.getExecTime());
+        assertEquals(line, e.getResult(), a.getResult());
+      }
+    }
+  }
 }